@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Runs the outbox relay once a write has committed, off the request thread.
+    // A wake-up that doesn't fit in the queue is dropped: a queued drain or the relay's poll picks the events up.
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(
+            @Value("${notify.persist.threads:2}") int threads,
+            @Value("${notify.persist.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("notify-persist-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Generates material previews after an upload. Rendering a PDF page takes CPU and memory, so only a few run
+    // at once; a preview that doesn't fit in the queue is rejected and generated when it's first requested.
+    @Bean
+    public ThreadPoolTaskExecutor previewExecutor(
+            @Value("${previews.threads:2}") int threads,
+            @Value("${previews.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("previews-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
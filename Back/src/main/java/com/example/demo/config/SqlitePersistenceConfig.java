@@ -0,0 +1,94 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+
+/**
+ * Production persistence profile: SQLite in WAL mode behind two pools.
+ *
+ * SQLite allows a single writer at a time, so all writes go through a pool with exactly one connection
+ * and wait there instead of failing with SQLITE_BUSY. In WAL mode readers don't block on that writer,
+ * so read-only transactions (every Spring Data finder is one) are served by a separate pool of
+ * read-only connections. The routing happens in {@link LazyConnectionDataSourceProxy}, which only
+ * picks the physical connection once the transaction's read-only flag is known.
+ */
+@Configuration
+@Profile("prod & !postgres")
+public class SqlitePersistenceConfig {
+
+    @Value("${persistence.sqlite.path:database.db}")
+    private String path;
+
+    @Value("${persistence.sqlite.busy-timeout-ms:5000}")
+    private int busyTimeoutMillis;
+
+    @Value("${persistence.sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${persistence.pool.readers:4}")
+    private int readers;
+
+    @Value("${persistence.pool.connection-timeout-ms:30000}")
+    private long connectionTimeoutMillis;
+
+    @Bean
+    public HikariDataSource writeDataSource() {
+        SQLiteConfig sqlite = baseConfig();
+        sqlite.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqlite.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+
+        HikariConfig pool = poolConfig("sqlite-writer", sqlite);
+        pool.setMaximumPoolSize(1);
+        pool.setMinimumIdle(1);
+        return new HikariDataSource(pool);
+    }
+
+    // Created after the writer so the database is already switched to WAL (read-only connections can't do it)
+    @Bean
+    public HikariDataSource readDataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource) {
+        SQLiteConfig sqlite = baseConfig();
+        sqlite.setReadOnly(true);
+
+        HikariConfig pool = poolConfig("sqlite-reader", sqlite);
+        pool.setReadOnly(true);
+        pool.setMaximumPoolSize(readers);
+        pool.setMinimumIdle(1);
+        return new HikariDataSource(pool);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") HikariDataSource readDataSource) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(writeDataSource);
+        routing.setReadOnlyDataSource(readDataSource);
+        return routing;
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        sqlite.setBusyTimeout(busyTimeoutMillis);
+        sqlite.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        return sqlite;
+    }
+
+    private HikariConfig poolConfig(String name, SQLiteConfig sqlite) {
+        HikariConfig pool = new HikariConfig();
+        pool.setPoolName(name);
+        pool.setDriverClassName("org.sqlite.JDBC");
+        pool.setJdbcUrl("jdbc:sqlite:" + path);
+        pool.setDataSourceProperties(sqlite.toProperties());
+        pool.setConnectionTimeout(connectionTimeoutMillis);
+        return pool;
+    }
+}
@@ -2,12 +2,16 @@ package com.example.demo.controller;
 
 import com.example.demo.model.ChatMessage;
 import com.example.demo.repository.ChatMessageRepository;
+import com.example.demo.service.SearchIndex;
 import com.example.demo.websocket.NotificationService;
 import com.example.demo.util.InputSanitizer;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @RestController
@@ -15,17 +19,68 @@ import java.util.List;
 @CrossOrigin
 public class ChatController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ChatMessageRepository chatRepo;
     private final NotificationService notifier;
+    private final SearchIndex search;
 
-    public ChatController(ChatMessageRepository chatRepo, NotificationService notifier) {
+    public ChatController(ChatMessageRepository chatRepo, NotificationService notifier, SearchIndex search) {
         this.chatRepo = chatRepo;
         this.notifier = notifier;
+        this.search = search;
     }
 
+    // GET /chat/{groupId}?before={messageId}|after={messageId}&limit=N
+    // Returns at most `limit` messages in chronological order. Without a cursor the latest page is returned.
     @GetMapping("/{groupId}")
-    public List<ChatMessage> getMessages(@PathVariable Long groupId) {
-        return chatRepo.findByGroupIdOrderByTimestampAsc(groupId);
+    public ResponseEntity<?> getMessages(
+            @PathVariable Long groupId,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body("BEFORE_AND_AFTER_EXCLUSIVE");
+        }
+
+        PageRequest page = PageRequest.of(0, clampLimit(limit));
+
+        if (after != null) {
+            ChatMessage cursor = findCursor(groupId, after);
+            if (cursor == null) {
+                return ResponseEntity.badRequest().body("CURSOR_NOT_FOUND");
+            }
+            return ResponseEntity.ok(chatRepo.findAfter(groupId, cursor.getTimestamp(), cursor.getId(), page));
+        }
+
+        List<ChatMessage> messages;
+        if (before != null) {
+            ChatMessage cursor = findCursor(groupId, before);
+            if (cursor == null) {
+                return ResponseEntity.badRequest().body("CURSOR_NOT_FOUND");
+            }
+            messages = new ArrayList<>(chatRepo.findBefore(groupId, cursor.getTimestamp(), cursor.getId(), page));
+        } else {
+            messages = new ArrayList<>(chatRepo.findLatest(groupId, page));
+        }
+
+        Collections.reverse(messages);
+        return ResponseEntity.ok(messages);
+    }
+
+    private ChatMessage findCursor(Long groupId, Long messageId) {
+        return chatRepo.findById(messageId)
+                .filter(m -> groupId.equals(m.getGroupId()))
+                .orElse(null);
+    }
+
+    private static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 
     @PostMapping("/send")
@@ -52,7 +107,8 @@ public class ChatController {
 
         try {
             ChatMessage saved = chatRepo.save(message);
-            notifier.notifyChatNew(saved.getUserName(), saved.getContent());
+            search.indexMessage(saved);
+            notifier.notifyChatNew(saved);
             return ResponseEntity.ok(saved);
         } catch (Exception ex) {
             System.err.println("Error saving chat message: " + ex.getMessage());
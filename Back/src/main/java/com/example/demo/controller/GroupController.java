@@ -6,13 +6,17 @@ import com.example.demo.model.User;
 import com.example.demo.repository.GroupRepository;
 import com.example.demo.repository.GroupMemberRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.ResourceRevisions;
 import com.example.demo.websocket.NotificationService;
 import com.example.demo.util.InputSanitizer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.BufferedReader;
 import java.util.List;
@@ -28,26 +32,35 @@ public class GroupController {
     private final GroupMemberRepository memberRepo;
     private final UserRepository userRepo;
     private final NotificationService notifier;
+    private final ResourceRevisions revisions;
 
-    public GroupController(GroupRepository repo, GroupMemberRepository memberRepo, UserRepository userRepo, NotificationService notifier) {
+    public GroupController(GroupRepository repo, GroupMemberRepository memberRepo, UserRepository userRepo,
+                           NotificationService notifier, ResourceRevisions revisions) {
         this.repo = repo;
         this.memberRepo = memberRepo;
         this.userRepo = userRepo;
         this.notifier = notifier;
+        this.revisions = revisions;
     }
 
     @PostMapping
     public Group create(@RequestBody Group g) {
         g.setName(InputSanitizer.sanitize(g.getName()));
-        return repo.save(g);
+        Group saved = repo.save(g);
+        revisions.groupsChanged();
+        return saved;
     }
 
     @GetMapping
-    public List<Group> all() {
+    public List<Group> all(WebRequest request) {
+        if (request.checkNotModified(revisions.groupsEtag())) {
+            return null;
+        }
         return repo.findAll();
     }
 
     @PostMapping("/{groupId}/add-member")
+    @Transactional
     public ResponseEntity<String> addMember(
             @PathVariable Long groupId,
             @RequestParam(required = false) String email,
@@ -108,10 +121,16 @@ public class GroupController {
             GroupMember saved = memberRepo.save(member);
             System.out.println("Saved GroupMember with id: " + saved.getId());
 
+            revisions.groupChanged(groupId);
             notifier.notifyMemberNewForGroup(groupId, user.getName());
 
             return ResponseEntity.ok("OK");
+        } catch (DataIntegrityViolationException ex) {
+            // concurrent add of the same member, rejected by the unique (group_id, user_id) index
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(409).body("ALREADY_EXISTS");
         } catch (Exception ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             System.err.println("Error saving GroupMember: " + ex.getMessage());
             ex.printStackTrace();
             return ResponseEntity.status(500).body("ERROR_SAVING_MEMBER");
@@ -119,7 +138,10 @@ public class GroupController {
     }
 
     @GetMapping("/{groupId}/members")
-    public List<User> getMembers(@PathVariable Long groupId) {
+    public List<User> getMembers(@PathVariable Long groupId, WebRequest request) {
+        if (request.checkNotModified(revisions.groupEtag(groupId))) {
+            return null;
+        }
         List<GroupMember> members = memberRepo.findByGroupId(groupId);
 
         return members.stream()
@@ -140,6 +162,7 @@ public class GroupController {
                 .map(group -> {
                     group.setName(newName);
                     Group saved = repo.save(group);
+                    revisions.groupsChanged();
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.status(404).body(null));
@@ -157,6 +180,7 @@ public class GroupController {
 
         try {
             memberRepo.delete(member);
+            revisions.groupChanged(groupId);
             System.out.println("Member removed successfully");
             return ResponseEntity.ok("OK");
         } catch (Exception ex) {
@@ -180,6 +204,7 @@ public class GroupController {
 
             memberRepo.delete(member);
             memberRepo.flush();
+            revisions.groupChanged(groupId);
             System.out.println("Member removed successfully");
             return ResponseEntity.ok("OK");
         } catch (Exception ex) {
@@ -199,6 +224,8 @@ public class GroupController {
         memberRepo.deleteAll(members);
 
         repo.deleteById(id);
+        revisions.groupsChanged();
+        revisions.groupChanged(id);
 
         return ResponseEntity.ok("OK");
     }
@@ -2,19 +2,42 @@ package com.example.demo.controller;
 
 import com.example.demo.model.StudyMaterial;
 import com.example.demo.repository.StudyMaterialRepository;
+import com.example.demo.service.ChunkedUploadService;
+import com.example.demo.service.MaterialStore;
+import com.example.demo.service.PreviewService;
+import com.example.demo.service.ResourceRevisions;
+import com.example.demo.service.SearchIndex;
 import com.example.demo.websocket.NotificationService;
 import com.example.demo.util.InputSanitizer;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/materials")
@@ -23,18 +46,26 @@ public class MaterialController {
 
     private final StudyMaterialRepository materialRepo;
     private final NotificationService notifier;
-    private static final String UPLOAD_DIR = "uploads";
+    private final MaterialStore store;
+    private final ChunkedUploadService uploads;
+    private final PreviewService previews;
+    private final SearchIndex search;
+    private final ResourceRevisions revisions;
 
-    public MaterialController(StudyMaterialRepository materialRepo, NotificationService notifier) {
+    public MaterialController(StudyMaterialRepository materialRepo, NotificationService notifier, MaterialStore store,
+                              ChunkedUploadService uploads, PreviewService previews, SearchIndex search,
+                              ResourceRevisions revisions) {
         this.materialRepo = materialRepo;
         this.notifier = notifier;
-        File uploadDir = new File(UPLOAD_DIR);
-        if (!uploadDir.exists()) {
-            boolean created = uploadDir.mkdirs();
-        }
+        this.store = store;
+        this.uploads = uploads;
+        this.previews = previews;
+        this.search = search;
+        this.revisions = revisions;
     }
 
     @PostMapping("/link")
+    @Transactional
     public ResponseEntity<?> uploadLink(@RequestBody StudyMaterial material) {
         material.setTitle(InputSanitizer.sanitize(material.getTitle()));
 
@@ -46,20 +77,24 @@ public class MaterialController {
         }
 
         material.setFilePath(null);
-        material.setCreatedAt(java.time.LocalDateTime.now().toString());
+        material.setCreatedAt(java.time.LocalDateTime.now());
 
         try {
             StudyMaterial saved = materialRepo.save(material);
 
+            search.indexMaterial(saved);
+            revisions.groupChanged(saved.getGroupId());
             notifier.notifyMaterialNewForGroup(saved.getGroupId(), saved.getTitle());
 
             return ResponseEntity.ok(saved);
         } catch (Exception ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseEntity.status(500).body("ERROR_SAVING_MATERIAL");
         }
     }
 
     @PostMapping(value = "/upload", consumes = {"multipart/form-data"})
+    @Transactional
     public ResponseEntity<?> uploadFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "groupId", required = false) Long groupId,
@@ -73,42 +108,153 @@ public class MaterialController {
         }
 
         try {
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String uniqueFilename = UUID.randomUUID() + extension;
-
             String materialTitle = InputSanitizer.sanitize(
-                (title != null && !title.isBlank()) ? title : originalFilename
+                (title != null && !title.isBlank()) ? title : file.getOriginalFilename()
             );
 
-            Path uploadPath = Paths.get(UPLOAD_DIR, uniqueFilename);
-            Files.write(uploadPath, file.getBytes());
-
-            StudyMaterial material = new StudyMaterial();
-            material.setGroupId(groupId);
-            material.setUploadedBy(uploadedBy);
-            material.setTitle(materialTitle);
-            material.setUrl(null);
-            material.setFilePath(uploadPath.toString());
-            material.setCreatedAt(java.time.LocalDateTime.now().toString());
+            MaterialStore.Blob blob;
+            try (InputStream in = file.getInputStream()) {
+                blob = store.put(in);
+            }
 
-            StudyMaterial saved = materialRepo.save(material);
+            StudyMaterial saved = store.reference(blob, groupId, uploadedBy, materialTitle);
 
+            search.indexMaterial(saved);
+            revisions.groupChanged(saved.getGroupId());
             notifier.notifyMaterialNewForGroup(saved.getGroupId(), saved.getTitle());
 
             return ResponseEntity.ok(saved);
         } catch (IOException ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseEntity.status(500).body("ERROR_SAVING_FILE");
         } catch (Exception ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseEntity.status(500).body("ERROR_SAVING_MATERIAL");
         }
     }
 
+    // Adds a material for a file that is already stored, identified by its SHA-256, without sending it again.
+    // Answers 404 BLOB_NOT_FOUND if no such file is stored; the client then uploads it.
+    @PostMapping("/by-hash")
+    @Transactional
+    public ResponseEntity<?> addByHash(@RequestBody Map<String, String> body) {
+        String sha256 = body.get("sha256") != null ? body.get("sha256").toLowerCase() : null;
+        if (!MaterialStore.isSha256(sha256)) {
+            return ResponseEntity.badRequest().body("SHA256_REQUIRED");
+        }
+        String title = InputSanitizer.sanitize(body.get("title"));
+        if (title == null || title.isBlank()) {
+            return ResponseEntity.badRequest().body("TITLE_REQUIRED");
+        }
+
+        try {
+            Optional<MaterialStore.Blob> blob = store.find(sha256);
+            if (blob.isEmpty()) {
+                return ResponseEntity.status(404).body("BLOB_NOT_FOUND");
+            }
+
+            StudyMaterial saved = store.reference(blob.get(), parseId(body.get("groupId")),
+                    parseId(body.get("uploadedBy")), title);
+
+            search.indexMaterial(saved);
+            revisions.groupChanged(saved.getGroupId());
+            notifier.notifyMaterialNewForGroup(saved.getGroupId(), saved.getTitle());
+
+            return ResponseEntity.ok(saved);
+        } catch (NumberFormatException ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.badRequest().body("INVALID_ID");
+        } catch (Exception ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(500).body("ERROR_SAVING_MATERIAL");
+        }
+    }
+
+    // Resumable upload of a large file in chunks: POST /uploads with the size, then PUT every chunk
+    // (in any order, also in parallel, re-sending those that failed), then POST /uploads/{id}/complete.
+    // GET /uploads/{id} lists the chunks already received, so an interrupted upload continues from there.
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initiateUpload(@RequestBody Map<String, String> body) {
+        String title = InputSanitizer.sanitize(body.get("title"));
+        if (title == null || title.isBlank()) {
+            return ResponseEntity.badRequest().body("TITLE_REQUIRED");
+        }
+
+        try {
+            long size = Long.parseLong(body.getOrDefault("size", ""));
+            return ResponseEntity.ok(uploads.initiate(parseId(body.get("groupId")), parseId(body.get("uploadedBy")),
+                    title, size));
+        } catch (NumberFormatException ex) {
+            return ResponseEntity.badRequest().body("INVALID_SIZE");
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IOException ex) {
+            return ResponseEntity.status(500).body("ERROR_SAVING_FILE");
+        }
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+        return uploads.status(uploadId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(404).body("UPLOAD_NOT_FOUND"));
+    }
+
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId, @PathVariable int index,
+                                         @RequestParam("offset") long offset,
+                                         @RequestHeader(value = "X-Chunk-Sha256", required = false) String sha256,
+                                         InputStream body) {
+        if (sha256 == null || sha256.isBlank()) {
+            return ResponseEntity.badRequest().body("CHECKSUM_REQUIRED");
+        }
+        return handleUpload(() -> {
+            uploads.writeChunk(uploadId, index, offset, sha256, body);
+            return "OK";
+        });
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId,
+                                            @RequestBody(required = false) Map<String, String> body) {
+        return handleUpload(() -> uploads.complete(uploadId, body != null ? body.get("sha256") : null));
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId) {
+        return handleUpload(() -> uploads.abort(uploadId) ? "OK" : null);
+    }
+
+    private interface UploadStep {
+        Object run() throws IOException;
+    }
+
+    private static ResponseEntity<?> handleUpload(UploadStep step) {
+        try {
+            Object result = step.run();
+            return result != null ? ResponseEntity.ok(result) : ResponseEntity.status(404).body("UPLOAD_NOT_FOUND");
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(404).body(ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(ex.getMessage());
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println("Error writing upload " + ex.getMessage());
+            return ResponseEntity.status(500).body("ERROR_SAVING_FILE");
+        }
+    }
+
+    private static Long parseId(String value) {
+        return value == null || value.isBlank() ? null : Long.valueOf(value);
+    }
+
+    // Answers If-None-Match with 304 while the group's revision is unchanged
     @GetMapping("/group/{groupId}")
-    public List<StudyMaterial> getMaterialsByGroup(@PathVariable Long groupId) {
+    public List<StudyMaterial> getMaterialsByGroup(@PathVariable Long groupId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(revisions.groupEtag(groupId))) {
+            return null;
+        }
         return materialRepo.findByGroupId(groupId);
     }
 
@@ -117,46 +263,144 @@ public class MaterialController {
 
         return materialRepo.findById(id)
                 .map(material -> {
-                    if (material.getFilePath() != null && !material.getFilePath().isBlank()) {
-                        try {
-                            Path filePath = Paths.get(material.getFilePath());
-                            Files.deleteIfExists(filePath);
-                        } catch (IOException ex) {
-                            System.err.println("Warning: could not delete file: " + ex.getMessage());
-                        }
-                    }
-
-                    materialRepo.deleteById(id);
+                    // the stored file goes with its last material
+                    store.delete(material);
+                    search.removeMaterial(id);
+                    revisions.groupChanged(material.getGroupId());
                     return ResponseEntity.ok("OK");
                 })
                 .orElse(ResponseEntity.status(404).body("MATERIAL_NOT_FOUND"));
     }
 
+    // Streams the file from disk. Supports conditional GETs (ETag / Last-Modified, answered with 304)
+    // and byte ranges (Range, honoured only while If-Range still matches), so resumed and cached
+    // downloads don't resend what the client already has.
     @GetMapping("/download/{id}")
-    public ResponseEntity<?> downloadFile(@PathVariable Long id) {
-        return materialRepo.findById(id)
-                .map(material -> {
-                    if (material.getFilePath() == null || material.getFilePath().isBlank()) {
-                        return ResponseEntity.badRequest().body("NOT_A_FILE");
-                    }
-
-                    try {
-                        Path filePath = Paths.get(material.getFilePath());
-                        if (!Files.exists(filePath)) {
-                            return ResponseEntity.status(404).body("FILE_NOT_FOUND");
-                        }
-
-                        byte[] fileContent = Files.readAllBytes(filePath);
-                        String filename = filePath.getFileName().toString();
-
-                        return ResponseEntity.ok()
-                                .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
-                                .header("Content-Type", "application/octet-stream")
-                                .body(fileContent);
-                    } catch (IOException ex) {
-                        return ResponseEntity.status(500).body("ERROR_READING_FILE");
-                    }
-                })
-                .orElse(ResponseEntity.status(404).body(null));
+    public ResponseEntity<?> downloadFile(@PathVariable Long id, @RequestHeader HttpHeaders requestHeaders,
+                                          WebRequest webRequest) {
+        StudyMaterial material = materialRepo.findById(id).orElse(null);
+        if (material == null) {
+            return ResponseEntity.status(404).body(null);
+        }
+        if (material.getFilePath() == null || material.getFilePath().isBlank()) {
+            return ResponseEntity.badRequest().body("NOT_A_FILE");
+        }
+
+        Path filePath = Paths.get(material.getFilePath());
+        if (!Files.exists(filePath)) {
+            return ResponseEntity.status(404).body("FILE_NOT_FOUND");
+        }
+
+        try {
+            long length = Files.size(filePath);
+            long lastModified = Files.getLastModifiedTime(filePath).toMillis() / 1000 * 1000;
+            // strong validator, so it can be used with If-Range
+            String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            String filename = downloadName(material, filePath);
+            headers.setContentDisposition(StandardCharsets.US_ASCII.newEncoder().canEncode(filename)
+                    ? ContentDisposition.attachment().filename(filename).build()
+                    : ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build());
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.setETag(etag);
+            headers.setLastModified(lastModified);
+            // may be kept by the client, but only reused after revalidating with the validators above
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+            FileSystemResource resource = new FileSystemResource(filePath);
+            if (requestHeaders.getFirst(HttpHeaders.RANGE) != null
+                    && ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), etag, lastModified)) {
+                // Spring MVC answers the Range header of a Resource body itself: 206 with the requested
+                // regions streamed from the file, or 416 if they lie outside of it
+                return ResponseEntity.ok().headers(headers).body(resource);
+            }
+
+            // An InputStreamResource is always sent whole (Spring applies no Range to it), streamed from disk
+            headers.setContentLength(length);
+            return ResponseEntity.ok().headers(headers).body(new InputStreamResource(resource.getInputStream()));
+        } catch (IOException ex) {
+            return ResponseEntity.status(500).body("ERROR_READING_FILE");
+        }
+    }
+
+    // Page-one / image thumbnail (PNG, 240px wide) and text snippet of a file, a few kilobytes each, so a
+    // material can be recognised without downloading it. Made in the background after the upload: until then
+    // (or for files that have none) the answer is 404 PREVIEW_PENDING or NO_PREVIEW.
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<?> getThumbnail(@PathVariable Long id, WebRequest webRequest) {
+        return preview(id, PreviewService::thumbnailFor, MediaType.IMAGE_PNG, webRequest);
+    }
+
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<?> getPreview(@PathVariable Long id, WebRequest webRequest) {
+        return preview(id, PreviewService::snippetFor, new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8),
+                webRequest);
+    }
+
+    private ResponseEntity<?> preview(Long id, Function<Path, Path> previewOf, MediaType type, WebRequest webRequest) {
+        StudyMaterial material = materialRepo.findById(id).orElse(null);
+        if (material == null) {
+            return ResponseEntity.status(404).body("MATERIAL_NOT_FOUND");
+        }
+        if (material.getFilePath() == null || material.getFilePath().isBlank()) {
+            return ResponseEntity.status(404).body("NO_PREVIEW");
+        }
+
+        Path file = Paths.get(material.getFilePath());
+        Path preview = previewOf.apply(file);
+        switch (previews.state(preview, file)) {
+            case PENDING:
+                return ResponseEntity.status(404).body("PREVIEW_PENDING");
+            case UNAVAILABLE:
+                return ResponseEntity.status(404).body("NO_PREVIEW");
+            default:
+                break;
+        }
+
+        try {
+            long lastModified = Files.getLastModifiedTime(preview).toMillis() / 1000 * 1000;
+            String etag = "\"" + Long.toHexString(Files.size(preview)) + "-" + Long.toHexString(lastModified) + "\"";
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(type)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    // a stored file's previews never change; revalidated after a day all the same
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                    .body(Files.readAllBytes(preview));
+        } catch (IOException ex) {
+            return ResponseEntity.status(500).body("ERROR_READING_FILE");
+        }
+    }
+
+    // Stored files are named by their hash, so the download is named after the material
+    private static String downloadName(StudyMaterial material, Path filePath) {
+        String title = material.getTitle();
+        return title != null && !title.isBlank() ? title : filePath.getFileName().toString();
+    }
+
+    private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() == lastModified;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
     }
 }
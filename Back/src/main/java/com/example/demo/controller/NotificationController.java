@@ -2,9 +2,11 @@ package com.example.demo.controller;
 
 import com.example.demo.model.Notification;
 import com.example.demo.repository.NotificationRepository;
+import com.example.demo.service.ResourceRevisions;
 import com.example.demo.util.InputSanitizer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,23 +18,35 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationRepository notificationRepo;
+    private final ResourceRevisions revisions;
 
-    public NotificationController(NotificationRepository notificationRepo) {
+    public NotificationController(NotificationRepository notificationRepo, ResourceRevisions revisions) {
         this.notificationRepo = notificationRepo;
+        this.revisions = revisions;
     }
 
+    // The reads answer If-None-Match with 304 while the user's notifications are unchanged
     @GetMapping("/{userId}")
-    public List<Notification> getNotifications(@PathVariable Long userId) {
+    public List<Notification> getNotifications(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(revisions.notificationsEtag(userId))) {
+            return null;
+        }
         return notificationRepo.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
     @GetMapping("/{userId}/unread")
-    public List<Notification> getUnreadNotifications(@PathVariable Long userId) {
+    public List<Notification> getUnreadNotifications(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(revisions.notificationsEtag(userId))) {
+            return null;
+        }
         return notificationRepo.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId);
     }
 
     @GetMapping("/{userId}/count")
-    public Map<String, Long> getUnreadCount(@PathVariable Long userId) {
+    public Map<String, Long> getUnreadCount(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(revisions.notificationsEtag(userId))) {
+            return null;
+        }
         long count = notificationRepo.countByUserIdAndReadFalse(userId);
         return Map.of("unreadCount", count);
     }
@@ -55,6 +69,7 @@ public class NotificationController {
 
         try {
             Notification saved = notificationRepo.save(notification);
+            revisions.notificationsChanged(saved.getUserId());
             return ResponseEntity.ok(saved);
         } catch (Exception ex) {
             System.err.println("Error saving notification: " + ex.getMessage());
@@ -68,6 +83,7 @@ public class NotificationController {
                 .map(notification -> {
                     notification.setRead(true);
                     Notification saved = notificationRepo.save(notification);
+                    revisions.notificationsChanged(saved.getUserId());
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.status(404).body(null));
@@ -78,15 +94,18 @@ public class NotificationController {
         List<Notification> unread = notificationRepo.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId);
         unread.forEach(n -> n.setRead(true));
         notificationRepo.saveAll(unread);
+        revisions.notificationsChanged(userId);
         return ResponseEntity.ok(Map.of("markedAsRead", unread.size()));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteNotification(@PathVariable Long id) {
-        if (!notificationRepo.existsById(id)) {
+        Notification notification = notificationRepo.findById(id).orElse(null);
+        if (notification == null) {
             return ResponseEntity.status(404).body("NOTIFICATION_NOT_FOUND");
         }
         notificationRepo.deleteById(id);
+        revisions.notificationsChanged(notification.getUserId());
         return ResponseEntity.ok("OK");
     }
 }
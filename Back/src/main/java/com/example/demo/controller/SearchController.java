@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.SearchIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/search")
+@CrossOrigin
+public class SearchController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final SearchIndex search;
+
+    public SearchController(SearchIndex search) {
+        this.search = search;
+    }
+
+    // GET /search?groupId=1&q=linear algebra&page=0&size=20
+    // Tasks, chat messages and materials of the group matching every word of q, best match first
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam("groupId") Long groupId,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(search.search(groupId, q, page, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IOException ex) {
+            System.err.println("Error searching: " + ex.getMessage());
+            return ResponseEntity.status(500).body("ERROR_SEARCHING");
+        }
+    }
+}
@@ -1,42 +1,65 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.TaskBoard;
 import com.example.demo.dto.TaskDTO;
+import com.example.demo.dto.TaskSummary;
 import com.example.demo.model.Task;
-import com.example.demo.model.GroupMember;
 import com.example.demo.repository.TaskRepository;
-import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.TaskRepositoryCustom.TaskCursor;
+import com.example.demo.repository.TaskRepositoryCustom.TaskFilter;
+import com.example.demo.repository.TaskRepositoryCustom.TaskOrder;
+import com.example.demo.service.DeadlineReminderService;
+import com.example.demo.service.GroupStatsService;
+import com.example.demo.service.ResourceRevisions;
+import com.example.demo.service.SearchIndex;
 import com.example.demo.websocket.NotificationService;
 import com.example.demo.util.InputSanitizer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/tasks")
 @CrossOrigin
 public class TaskController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Columns of the task board, in order
+    private static final List<String> BOARD_STATUSES = List.of("OPEN", "IN_PROGRESS", "DONE");
+
     @Autowired
     private TaskRepository taskRepository;
 
     @Autowired
-    private GroupMemberRepository groupMemberRepository;
+    private NotificationService notifier;
+
+    @Autowired
+    private GroupStatsService groupStats;
 
     @Autowired
-    private SimpMessagingTemplate messaging;
+    private DeadlineReminderService reminders;
 
     @Autowired
-    private NotificationService notifier;
+    private SearchIndex search;
+
+    @Autowired
+    private ResourceRevisions revisions;
 
     @PostMapping
+    @Transactional
     public ResponseEntity<?> create(
             @RequestBody Task t,
             @RequestParam(value = "createdBy", required = false) Long createdByParam) {
@@ -63,18 +86,18 @@ public class TaskController {
         try {
             Task saved = taskRepository.save(t);
 
-            // notify WebSocket clients
-            try {
-                messaging.convertAndSend("/topic/tasks", "update");
-            } catch (Exception ex) {
-                System.err.println("Warning: failed to send WS update: " + ex.getMessage());
-            }
+            groupStats.taskCreated(saved);
+            reminders.taskChanged(saved);
+            search.indexTask(saved);
 
-            // Send real-time notification and persist to database
+            // Recorded in the same transaction as the task; OutboxRelay delivers them after commit
+            revisions.groupChanged(saved.getGroupId());
+            notifier.notifyTasksChanged(saved.getGroupId());
             notifier.notifyTaskNewForGroup(saved.getGroupId(), saved.getTitle());
 
             return ResponseEntity.ok(saved);
         } catch (Exception ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             System.err.println("Error saving task:");
             logException(ex);
             return ResponseEntity.status(500).body("ERROR_SAVING_TASK: " + ex.getMessage());
@@ -83,6 +106,7 @@ public class TaskController {
 
     // Alternative endpoint: POST /tasks/group/{groupId} - for frontends that send groupId in URL
     @PostMapping({"/group/{groupId}", "/{groupId}"})
+    @Transactional
     public ResponseEntity<?> createWithGroupId(
             @PathVariable Long groupId,
             @RequestBody Task t,
@@ -111,18 +135,18 @@ public class TaskController {
         try {
             Task saved = taskRepository.save(t);
 
-            // notify WebSocket clients
-            try {
-                messaging.convertAndSend("/topic/tasks", "update");
-            } catch (Exception ex) {
-                System.err.println("Warning: failed to send WS update: " + ex.getMessage());
-            }
+            groupStats.taskCreated(saved);
+            reminders.taskChanged(saved);
+            search.indexTask(saved);
 
-            // Send real-time notification and persist to database
+            // Recorded in the same transaction as the task; OutboxRelay delivers them after commit
+            revisions.groupChanged(saved.getGroupId());
+            notifier.notifyTasksChanged(saved.getGroupId());
             notifier.notifyTaskNewForGroup(saved.getGroupId(), saved.getTitle());
 
             return ResponseEntity.ok(saved);
         } catch (Exception ex) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             System.err.println("Error saving task:");
             logException(ex);
             return ResponseEntity.status(500).body("ERROR_SAVING_TASK: " + ex.getMessage());
@@ -130,8 +154,10 @@ public class TaskController {
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public Task updateTask(@PathVariable Long id, @RequestBody Task updated) {
         Task t = taskRepository.findById(id).orElseThrow();
+        GroupStatsService.Contribution before = GroupStatsService.Contribution.of(t);
 
         // Sanitize inputs
         t.setTitle(InputSanitizer.sanitize(updated.getTitle()));
@@ -140,18 +166,132 @@ public class TaskController {
 
         Task saved = taskRepository.save(t);
 
-        messaging.convertAndSend("/topic/tasks", "update");
+        groupStats.taskChanged(before, saved);
+        reminders.taskChanged(saved);
+        search.indexTask(saved);
+        revisions.groupChanged(saved.getGroupId());
+        notifier.notifyTasksChanged(saved.getGroupId());
 
         return saved;
     }
 
 
 
+    // The group's task reads answer If-None-Match with 304 while the group's revision is unchanged
     @GetMapping({"/group/{groupId}", "/{groupId}"})
-    public List<Task> getTasksByGroup(@PathVariable Long groupId) {
+    public List<Task> getTasksByGroup(@PathVariable Long groupId, WebRequest request) {
+        if (request.checkNotModified(revisions.groupEtag(groupId))) {
+            return null;
+        }
         return taskRepository.findByGroupId(groupId);
     }
 
+    // GET /tasks/group/{groupId}/summaries?status=&createdBy=&deadlineFrom=yyyy-MM-dd&deadlineTo=yyyy-MM-dd
+    //     &sort=newest|deadline&after={cursor}&limit=N
+    // One page of the group's tasks without their descriptions. To get the next page pass the sort key of
+    // the last task of a page as `after`: its id when newest first, "{deadline},{id}" by deadline (with an
+    // empty deadline for a task without one). A page shorter than `limit` is the last.
+    @GetMapping("/group/{groupId}/summaries")
+    public ResponseEntity<?> getTaskSummaries(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long createdBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deadlineTo,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+
+        TaskOrder order;
+        try {
+            order = TaskOrder.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body("INVALID_SORT");
+        }
+        if (deadlineFrom != null && deadlineTo != null && deadlineTo.isBefore(deadlineFrom)) {
+            return ResponseEntity.badRequest().body("INVALID_RANGE");
+        }
+        TaskCursor cursor;
+        try {
+            cursor = parseCursor(after, order);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return ResponseEntity.badRequest().body("INVALID_CURSOR");
+        }
+        if (request.checkNotModified(revisions.groupEtag(groupId))) {
+            return null;
+        }
+
+        // deadlineTo is inclusive: the whole day
+        TaskFilter filter = new TaskFilter(status, createdBy,
+                deadlineFrom != null ? deadlineFrom.atStartOfDay() : null,
+                deadlineTo != null ? deadlineTo.plusDays(1).atStartOfDay() : null);
+        return ResponseEntity.ok(taskRepository.findSummaries(groupId, filter, order, cursor, clampLimit(limit)));
+    }
+
+    // GET /tasks/group/{groupId}/board?sort=newest|deadline&limit=N
+    // The first `limit` tasks of every status column and the exact number of tasks in each, read in one
+    // transaction so they agree. Further pages of a column come from /summaries.
+    @GetMapping("/group/{groupId}/board")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getBoard(
+            @PathVariable Long groupId,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+
+        TaskOrder order;
+        try {
+            order = TaskOrder.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body("INVALID_SORT");
+        }
+        if (request.checkNotModified(revisions.groupEtag(groupId))) {
+            return null;
+        }
+
+        Map<String, Long> totals = new HashMap<>();
+        for (Object[] row : taskRepository.countByStatus(groupId)) {
+            totals.put((String) row[0], (Long) row[1]);
+        }
+
+        int pageSize = clampLimit(limit);
+        TaskBoard board = new TaskBoard();
+        for (String status : BOARD_STATUSES) {
+            TaskBoard.Column column = new TaskBoard.Column();
+            column.status = status;
+            column.total = totals.getOrDefault(status, 0L);
+            // an empty column needs no query
+            column.tasks = column.total == 0 ? List.of() : taskRepository.findSummaries(groupId,
+                    new TaskFilter(status, null, null, null), order, null, pageSize);
+            board.columns.add(column);
+        }
+        return ResponseEntity.ok(board);
+    }
+
+    private static TaskCursor parseCursor(String after, TaskOrder order) {
+        if (after == null) {
+            return null;
+        }
+        if (order == TaskOrder.NEWEST) {
+            return new TaskCursor(null, Long.parseLong(after));
+        }
+        int comma = after.lastIndexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("INVALID_CURSOR");
+        }
+        String deadline = after.substring(0, comma);
+        return new TaskCursor(deadline.isEmpty() ? null : LocalDateTime.parse(deadline),
+                Long.parseLong(after.substring(comma + 1)));
+    }
+
+    private static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
 
 
     @GetMapping("/info/{id}")
@@ -174,33 +314,51 @@ public class TaskController {
 
 
     @PutMapping("/status/{id}")
+    @Transactional
     public void updateStatus(@PathVariable Long id, @RequestBody String status) {
         Task t = taskRepository.findById(id).orElseThrow();
+        GroupStatsService.Contribution before = GroupStatsService.Contribution.of(t);
         t.setStatus(status);
         taskRepository.save(t);
+        groupStats.taskChanged(before, t);
+        reminders.taskChanged(t);
 
-        messaging.convertAndSend("/topic/tasks", "update");
+        revisions.groupChanged(t.getGroupId());
+
+        notifier.notifyTasksChanged(t.getGroupId());
     }
 
 
     @DeleteMapping("/{id}")
+    @Transactional
     public void deleteTask(@PathVariable Long id) {
+        Task task = taskRepository.findById(id).orElse(null);
         taskRepository.deleteById(id);
 
-        messaging.convertAndSend("/topic/tasks", "update");
+        if (task != null) {
+            groupStats.taskDeleted(task);
+            search.removeTask(id);
+            revisions.groupChanged(task.getGroupId());
+            notifier.notifyTasksChanged(task.getGroupId());
+        }
     }
 
     @PatchMapping("/{id}/status")
+    @Transactional
     public Task updateStatus(@PathVariable Long id, @RequestBody Map<String, String> body) {
         String newStatus = body.get("status");
 
         Task t = taskRepository.findById(id).orElseThrow(() -> new RuntimeException("Task not found"));
+        GroupStatsService.Contribution before = GroupStatsService.Contribution.of(t);
         t.setStatus(newStatus);
 
         Task saved = taskRepository.save(t);
+        groupStats.taskChanged(before, saved);
+        reminders.taskChanged(saved);
 
         // Оповіщаємо фронт про оновлення
-        messaging.convertAndSend("/topic/tasks", "update");
+        revisions.groupChanged(saved.getGroupId());
+        notifier.notifyTasksChanged(saved.getGroupId());
 
         return saved;
     }
@@ -210,10 +368,14 @@ public class TaskController {
     }
 
     @PatchMapping("/{id}/deadline")
+    @Transactional
     public Task updateDeadline(@PathVariable Long id, @RequestBody Task data) {
         Task t = taskRepository.findById(id).orElseThrow();
         t.setDeadline(data.getDeadline());
-        return taskRepository.save(t);
+        Task saved = taskRepository.save(t);
+        reminders.taskChanged(saved);
+        revisions.groupChanged(saved.getGroupId());
+        return saved;
     }
 
     @GetMapping("/{id}")
@@ -230,43 +392,8 @@ public class TaskController {
 
     @GetMapping("/upcoming/{userId}")
     public List<Task> getUpcomingDeadlines(@PathVariable Long userId) {
-        // Find all groups user participates in
-        List<GroupMember> memberships = groupMemberRepository.findByUserId(userId);
-        List<Long> groupIds = memberships.stream()
-                .map(GroupMember::getGroupId)
-                .collect(Collectors.toList());
-
-        if (groupIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        // Get all tasks from these groups
-        List<Task> allTasks = new ArrayList<>();
-        for (Long groupId : groupIds) {
-            allTasks.addAll(taskRepository.findByGroupId(groupId));
-        }
-
-        // Filter tasks with deadline within next 24 hours
+        // Unfinished tasks from all groups of the user with a deadline within the next 24 hours
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime in24Hours = now.plusHours(24);
-
-        return allTasks.stream()
-                .filter(task -> task.getDeadline() != null && !task.getDeadline().isBlank())
-                .filter(task -> {
-                    try {
-                        LocalDateTime deadline = LocalDateTime.parse(task.getDeadline());
-                        return deadline.isAfter(now) && deadline.isBefore(in24Hours);
-                    } catch (Exception e) {
-                        // Try alternative format
-                        try {
-                            LocalDateTime deadline = LocalDateTime.parse(task.getDeadline(),
-                                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"));
-                            return deadline.isAfter(now) && deadline.isBefore(in24Hours);
-                        } catch (Exception e2) {
-                            return false;
-                        }
-                    }
-                })
-                .collect(Collectors.toList());
+        return taskRepository.findUpcomingForUser(userId, now, now.plusHours(24));
     }
 }
@@ -1,7 +1,10 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.GroupMember;
 import com.example.demo.model.User;
+import com.example.demo.repository.GroupMemberRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.ResourceRevisions;
 import com.example.demo.util.InputSanitizer;
 
 import java.util.List;
@@ -24,10 +27,15 @@ public class UserController {
 
     private final UserRepository userRepo;
     private final PasswordEncoder passwordEncoder;
+    private final GroupMemberRepository memberRepo;
+    private final ResourceRevisions revisions;
 
-    public UserController(UserRepository userRepo, PasswordEncoder passwordEncoder) {
+    public UserController(UserRepository userRepo, PasswordEncoder passwordEncoder, GroupMemberRepository memberRepo,
+                          ResourceRevisions revisions) {
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
+        this.memberRepo = memberRepo;
+        this.revisions = revisions;
     }
 
     @PostMapping("/register")
@@ -146,6 +154,10 @@ public class UserController {
                         user.setEmail(sanitizedEmail);
                     }
                     User saved = userRepo.save(user);
+                    // the member lists of the user's groups show the new name
+                    for (GroupMember membership : memberRepo.findByUserId(saved.getId().longValue())) {
+                        revisions.groupChanged(membership.getGroupId());
+                    }
                     saved.setPassword(null);
                     return ResponseEntity.ok(saved);
                 })
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+// Response of GET /stats/group/{groupId}: status buckets and completion time buckets of one group.
+public class GroupTaskStats {
+    public long totalTasks;
+
+    public long tasksOpen;
+    public long tasksInProgress;
+    public long tasksDone;
+
+    public long tasksCompletedToday;
+    public long tasksCompletedThisWeek;
+    public long tasksCompletedThisMonth;
+}
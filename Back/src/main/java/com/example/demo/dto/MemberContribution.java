@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+// Result row of GroupMemberRepository.findContributions: one member of a group and the tasks they created there.
+public interface MemberContribution {
+    Long getUserId();
+    String getUserName();
+
+    Long getTasksCreated();
+    Long getTasksCompleted();
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+// One result of GET /search: a task, chat message or material of the group, best match first
+public class SearchHit {
+    // "task", "chat" or "material"
+    public String type;
+    public Long id;
+
+    public String title;
+    public String snippet;
+    public float score;
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A page of GET /search; total counts every match (exactly up to 1000, "at least" beyond)
+public class SearchResults {
+    public long total;
+    public int page;
+    public int size;
+
+    public List<SearchHit> hits = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Response of GET /tasks/group/{groupId}/board: the first page of each status column and how many tasks it has.
+public class TaskBoard {
+
+    public static class Column {
+        public String status;
+        public long total;
+        public List<TaskSummary> tasks;
+    }
+
+    public List<Column> columns = new ArrayList<>();
+}
@@ -1,5 +1,7 @@
 package com.example.demo.dto;
 
+import java.time.LocalDateTime;
+
 public class TaskDTO {
     public Long id;
     public Long groupId;
@@ -9,5 +11,5 @@ public class TaskDTO {
     public String description;
     public String status;
 
-    public String createdAt;
+    public LocalDateTime createdAt;
 }
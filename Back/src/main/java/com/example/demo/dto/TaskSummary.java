@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// A task as shown on the board: everything but the description, read straight into this class by
+// TaskRepository.findSummaries instead of loading Task entities
+public class TaskSummary {
+    public Long id;
+    public Long groupId;
+    public Long createdBy;
+
+    public String title;
+    public String status;
+
+    public LocalDateTime deadline;
+    public LocalDateTime createdAt;
+
+    public TaskSummary(Long id, Long groupId, Long createdBy, String title, String status,
+                       LocalDateTime deadline, LocalDateTime createdAt) {
+        this.id = id;
+        this.groupId = groupId;
+        this.createdBy = createdBy;
+        this.title = title;
+        this.status = status;
+        this.deadline = deadline;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+// One bucket of GET /stats/group/{groupId}/timeline: tasks created and DONE transitions from start (inclusive)
+// to the next bucket's start.
+public class TimelineBucket {
+    public String start;
+
+    public long created;
+    public long completed;
+
+    public TimelineBucket(String start) {
+        this.start = start;
+    }
+}
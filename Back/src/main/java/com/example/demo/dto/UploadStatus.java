@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// State of a resumable upload (/materials/uploads): chunk i covers bytes [i * chunkSize, (i + 1) * chunkSize)
+// of the file; only the chunks not yet in received still have to be sent.
+public class UploadStatus {
+    public String uploadId;
+
+    // where the material goes once the upload completes
+    public Long groupId;
+    public String title;
+
+    public long size;
+    public int chunkSize;
+    public int chunkCount;
+
+    public List<Integer> received;
+}
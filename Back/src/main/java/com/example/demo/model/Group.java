@@ -8,7 +8,6 @@ public class Group {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", columnDefinition = "INTEGER PRIMARY KEY AUTOINCREMENT")
     private Long id;
 
     private String name;
@@ -3,12 +3,15 @@ package com.example.demo.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "group_members")
+@Table(name = "group_members", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_group_members_group_user", columnNames = {"group_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_group_members_user_id", columnList = "user_id")
+})
 public class GroupMember {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", columnDefinition = "INTEGER PRIMARY KEY AUTOINCREMENT")
     private Long id;
 
     @Column(name = "group_id")
@@ -1,14 +1,17 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "materials")
+@Table(name = "materials", indexes = {
+        @Index(name = "idx_materials_group_id", columnList = "group_id"),
+        @Index(name = "idx_materials_sha256", columnList = "sha256")
+})
 public class StudyMaterial {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", columnDefinition = "INTEGER PRIMARY KEY AUTOINCREMENT")
     private Long id;
 
     @Column(name = "group_id")
@@ -25,7 +28,14 @@ public class StudyMaterial {
     private String filePath;
 
     @Column(name = "created_at")
-    private String createdAt = java.time.LocalDateTime.now().toString();
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Hex SHA-256 and size of the uploaded file (null for links)
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(name = "file_size")
+    private Long fileSize;
 
     public Long getId() {
         return id;
@@ -75,11 +85,27 @@ public class StudyMaterial {
         this.filePath = filePath;
     }
 
-    public String getCreatedAt() {
+    public LocalDateTime getCreatedAt() {
         return createdAt;
     }
 
-    public void setCreatedAt(String createdAt) {
+    public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
 }
@@ -1,14 +1,24 @@
 package com.example.demo.model;
 
+import com.example.demo.util.DeadlineDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks", uniqueConstraints = {})
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_group_status_id", columnList = "group_id, status, id"),
+        @Index(name = "idx_tasks_group_status_deadline", columnList = "group_id, status, deadline, id"),
+        @Index(name = "idx_tasks_group_creator_status", columnList = "group_id, created_by, status"),
+        @Index(name = "idx_tasks_status", columnList = "status"),
+        @Index(name = "idx_tasks_created_at", columnList = "created_at"),
+        @Index(name = "idx_tasks_group_deadline", columnList = "group_id, deadline"),
+        @Index(name = "idx_tasks_deadline", columnList = "deadline")
+})
 public class Task {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", columnDefinition = "INTEGER PRIMARY KEY AUTOINCREMENT")
     private Long id;
 
     private Long groupId;
@@ -19,7 +29,11 @@ public class Task {
 
     private String status;
 
-    private String createdAt = java.time.LocalDateTime.now().toString();
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Set when the task moves to DONE, cleared when it leaves DONE (see GroupStatsService)
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
 
     public Long getId() {
         return id;
@@ -69,22 +83,31 @@ public class Task {
         this.status = status;
     }
 
-    public String getCreatedAt() {
+    public LocalDateTime getCreatedAt() {
         return createdAt;
     }
 
-    public void setCreatedAt(String createdAt) {
+    public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
     @Column(name = "deadline")
-    private String deadline;
+    @JsonDeserialize(using = DeadlineDeserializer.class)
+    private LocalDateTime deadline;
 
-    public String getDeadline() {
+    public LocalDateTime getDeadline() {
         return deadline;
     }
 
-    public void setDeadline(String deadline) {
+    public void setDeadline(LocalDateTime deadline) {
         this.deadline = deadline;
     }
 }
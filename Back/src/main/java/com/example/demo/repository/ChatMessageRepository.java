@@ -1,11 +1,35 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findByGroupIdOrderByTimestampAsc(Long groupId);
-}
 
+    // Keyset pages over the (group_id, timestamp, id) index. "Latest" and "before" walk the
+    // index backwards, so callers reverse the page to get chronological order.
+    @Query("SELECT m FROM ChatMessage m WHERE m.groupId = :groupId " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findLatest(@Param("groupId") Long groupId, Pageable page);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.groupId = :groupId " +
+            "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findBefore(@Param("groupId") Long groupId,
+                                 @Param("timestamp") LocalDateTime timestamp,
+                                 @Param("id") Long id,
+                                 Pageable page);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.groupId = :groupId " +
+            "AND (m.timestamp > :timestamp OR (m.timestamp = :timestamp AND m.id > :id)) " +
+            "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findAfter(@Param("groupId") Long groupId,
+                                @Param("timestamp") LocalDateTime timestamp,
+                                @Param("id") Long id,
+                                Pageable page);
+}
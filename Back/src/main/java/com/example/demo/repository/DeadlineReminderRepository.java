@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Log of the deadline reminders already sent (table deadline_reminders, see migration V8)
+@Repository
+public class DeadlineReminderRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeadlineReminderRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns false if this reminder was already recorded, i.e. must not be sent again
+    public boolean markSent(Long taskId, String kind, LocalDateTime deadline) {
+        return jdbcTemplate.update("INSERT INTO deadline_reminders (task_id, kind, deadline, sent_at) " +
+                        "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING",
+                taskId, kind, Timestamp.valueOf(deadline), Timestamp.valueOf(LocalDateTime.now())) == 1;
+    }
+}
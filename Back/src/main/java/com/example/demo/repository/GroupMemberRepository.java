@@ -1,7 +1,10 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.MemberContribution;
 import com.example.demo.model.GroupMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -10,5 +13,14 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     List<GroupMember> findByUserId(Long userId);
     boolean existsByGroupIdAndUserId(Long groupId, Long userId);
     GroupMember findByGroupIdAndUserId(Long groupId, Long userId);
-}
 
+    // Every member with their name and counters from group_member_stats, in the order they joined the group
+    @Query(value = "SELECT m.user_id AS userId, COALESCE(u.name, 'Unknown') AS userName, " +
+            "COALESCE(s.tasks_created, 0) AS tasksCreated, COALESCE(s.tasks_completed, 0) AS tasksCompleted " +
+            "FROM group_members m " +
+            "LEFT JOIN users u ON u.id = m.user_id " +
+            "LEFT JOIN group_member_stats s ON s.group_id = m.group_id AND s.user_id = m.user_id " +
+            "WHERE m.group_id = :groupId " +
+            "ORDER BY m.id", nativeQuery = true)
+    List<MemberContribution> findContributions(@Param("groupId") Long groupId);
+}
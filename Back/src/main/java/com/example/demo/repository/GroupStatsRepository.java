@@ -0,0 +1,114 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.GroupTaskStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counter tables behind the /stats endpoints: {@code group_stats}, {@code group_member_stats} and
+ * {@code group_daily_completions} (see migration V5; the daily rows are keyed by completion day since V6).
+ *
+ * Counters are changed by deltas. Each add first creates the zero row if it is missing
+ * ({@code ON CONFLICT DO NOTHING} works on SQLite, PostgreSQL and H2) and then increments it, so concurrent
+ * writers never race on the insert.
+ */
+@Repository
+public class GroupStatsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GroupStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addToGroup(Long groupId, long total, long open, long inProgress, long done) {
+        jdbcTemplate.update("INSERT INTO group_stats (group_id) VALUES (?) ON CONFLICT DO NOTHING", groupId);
+        jdbcTemplate.update("UPDATE group_stats SET total_tasks = total_tasks + ?, tasks_open = tasks_open + ?, " +
+                        "tasks_in_progress = tasks_in_progress + ?, tasks_done = tasks_done + ? WHERE group_id = ?",
+                total, open, inProgress, done, groupId);
+    }
+
+    public void addToMember(Long groupId, Long userId, long created, long completed) {
+        jdbcTemplate.update("INSERT INTO group_member_stats (group_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                groupId, userId);
+        jdbcTemplate.update("UPDATE group_member_stats SET tasks_created = tasks_created + ?, " +
+                        "tasks_completed = tasks_completed + ? WHERE group_id = ? AND user_id = ?",
+                created, completed, groupId, userId);
+    }
+
+    public void addCompletions(Long groupId, String day, long completed) {
+        jdbcTemplate.update("INSERT INTO group_daily_completions (group_id, completed_on) VALUES (?, ?) " +
+                "ON CONFLICT DO NOTHING", groupId, day);
+        jdbcTemplate.update("UPDATE group_daily_completions SET tasks_completed = tasks_completed + ? " +
+                "WHERE group_id = ? AND completed_on = ?", completed, groupId, day);
+    }
+
+    // Days are ISO dates (yyyy-MM-dd); each bound is inclusive
+    @Transactional(readOnly = true)
+    public GroupTaskStats find(Long groupId, String today, String weekStart, String monthStart) {
+        GroupTaskStats stats = new GroupTaskStats();
+
+        List<long[]> totals = jdbcTemplate.query(
+                "SELECT total_tasks, tasks_open, tasks_in_progress, tasks_done FROM group_stats WHERE group_id = ?",
+                (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)},
+                groupId);
+        if (!totals.isEmpty()) {
+            stats.totalTasks = totals.get(0)[0];
+            stats.tasksOpen = totals.get(0)[1];
+            stats.tasksInProgress = totals.get(0)[2];
+            stats.tasksDone = totals.get(0)[3];
+        }
+
+        // at most ~31 rows, read through the (group_id, completed_on) primary key
+        jdbcTemplate.query("SELECT " +
+                        "COALESCE(SUM(CASE WHEN completed_on >= ? THEN tasks_completed ELSE 0 END), 0), " +
+                        "COALESCE(SUM(CASE WHEN completed_on >= ? THEN tasks_completed ELSE 0 END), 0), " +
+                        "COALESCE(SUM(tasks_completed), 0) " +
+                        "FROM group_daily_completions WHERE group_id = ? AND completed_on >= ?",
+                rs -> {
+                    stats.tasksCompletedToday = rs.getLong(1);
+                    stats.tasksCompletedThisWeek = rs.getLong(2);
+                    stats.tasksCompletedThisMonth = rs.getLong(3);
+                },
+                today, weekStart, groupId, monthStart);
+
+        return stats;
+    }
+
+    // Recomputes every counter from the tasks table
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM group_stats");
+        jdbcTemplate.update("DELETE FROM group_member_stats");
+        jdbcTemplate.update("DELETE FROM group_daily_completions");
+
+        jdbcTemplate.update("INSERT INTO group_stats (group_id, total_tasks, tasks_open, tasks_in_progress, tasks_done) " +
+                "SELECT group_id, COUNT(*), " +
+                "SUM(CASE WHEN status = 'OPEN' THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN status = 'IN_PROGRESS' THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END) " +
+                "FROM tasks WHERE group_id IS NOT NULL GROUP BY group_id");
+        jdbcTemplate.update("INSERT INTO group_member_stats (group_id, user_id, tasks_created, tasks_completed) " +
+                "SELECT group_id, created_by, COUNT(*), SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END) " +
+                "FROM tasks WHERE group_id IS NOT NULL AND created_by IS NOT NULL GROUP BY group_id, created_by");
+
+        // completed_at is epoch milliseconds on SQLite and a timestamp elsewhere, so the day is taken in Java
+        Map<List<Object>, Long> completions = new HashMap<>();
+        jdbcTemplate.query("SELECT group_id, completed_at FROM tasks " +
+                        "WHERE group_id IS NOT NULL AND status = 'DONE' AND completed_at IS NOT NULL",
+                (RowCallbackHandler) rs -> completions.merge(
+                        List.of(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime().toLocalDate().toString()),
+                        1L, Long::sum));
+        jdbcTemplate.batchUpdate("INSERT INTO group_daily_completions (group_id, completed_on, tasks_completed) " +
+                        "VALUES (?, ?, ?)",
+                completions.entrySet().stream()
+                        .map(e -> new Object[]{e.getKey().get(0), e.getKey().get(1), e.getValue()})
+                        .toList());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface NotificationRepositoryCustom {
+    // Inserts one unread notification per user in a single transaction using JDBC batching.
+    void insertForUsers(Collection<Long> userIds, String message, LocalDateTime createdAt);
+}
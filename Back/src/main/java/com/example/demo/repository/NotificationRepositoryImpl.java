@@ -0,0 +1,44 @@
+package com.example.demo.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    // Ids are left to the database, so the rows can go out as one JDBC batch. Hibernate cannot batch
+    // inserts of IDENTITY entities because it needs every generated id back immediately.
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, message, created_at, is_read) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public NotificationRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public void insertForUsers(Collection<Long> userIds, String message, LocalDateTime createdAt) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        // Bound as java.sql.Timestamp, the same way Hibernate stores Notification.createdAt
+        Timestamp created = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(INSERT_SQL, new ArrayList<>(userIds), batchSize, (ps, userId) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, message);
+            ps.setTimestamp(3, created);
+            ps.setBoolean(4, false);
+        });
+    }
+}
@@ -7,4 +7,7 @@ import java.util.List;
 
 public interface StudyMaterialRepository extends JpaRepository<StudyMaterial, Long> {
     List<StudyMaterial> findByGroupId(Long groupId);
+
+    // references to a stored blob, see MaterialStore
+    long countBySha256AndFilePath(String sha256, String filePath);
 }
@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.TaskEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface TaskEventRepository extends JpaRepository<TaskEvent, Long> {
+
+    // [occurredAt, fromStatus, toStatus] of the creations and DONE transitions of a group in [from, to), in time
+    // order. A range scan over idx_task_events_group_occurred, streamed in batches rather than loaded as entities;
+    // close the stream, inside a transaction.
+    @Query("SELECT e.occurredAt, e.fromStatus, e.toStatus FROM TaskEvent e WHERE e.groupId = :groupId " +
+            "AND e.occurredAt >= :from AND e.occurredAt < :to AND (e.fromStatus IS NULL OR e.toStatus = 'DONE') " +
+            "ORDER BY e.occurredAt")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Object[]> streamTimeline(@Param("groupId") Long groupId, @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+}
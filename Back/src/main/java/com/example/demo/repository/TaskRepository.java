@@ -2,17 +2,39 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
     List<Task> findByGroupId(Long groupId);
 
     long countByGroupId(Long groupId);
     long countByGroupIdAndStatus(Long groupId, String status);
 
+    // [status, count] per status of a group, counted from a (group_id, status, ...) index without reading the rows
+    @Query("SELECT t.status, COUNT(t) FROM Task t WHERE t.groupId = :groupId GROUP BY t.status")
+    List<Object[]> countByStatus(@Param("groupId") Long groupId);
+
     long countByGroupIdAndCreatedBy(Long groupId, Long createdBy);
     long countByGroupIdAndCreatedByAndStatus(Long groupId, Long createdBy, String status);
 
     List<Task> findByGroupIdAndCreatedBy(Long groupId, Long createdBy);
+
+    // Unfinished tasks of all the user's groups due in [from, to): the user's memberships
+    // (idx_group_members_user_id), then a deadline range per group (idx_tasks_group_deadline)
+    @Query("SELECT t FROM Task t JOIN GroupMember m ON m.groupId = t.groupId " +
+            "WHERE m.userId = :userId AND t.deadline >= :from AND t.deadline < :to " +
+            "AND (t.status IS NULL OR t.status <> 'DONE') " +
+            "ORDER BY t.deadline")
+    List<Task> findUpcomingForUser(@Param("userId") Long userId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // Unfinished tasks of every group due in [from, to), backed by idx_tasks_deadline
+    @Query("SELECT t FROM Task t WHERE t.deadline >= :from AND t.deadline < :to " +
+            "AND (t.status IS NULL OR t.status <> 'DONE')")
+    List<Task> findUnfinishedDueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,34 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.TaskSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+
+    // Optional filters of a task listing; null means not filtered. Deadlines are matched in [deadlineFrom, deadlineTo).
+    record TaskFilter(String status, Long createdBy, LocalDateTime deadlineFrom, LocalDateTime deadlineTo) {
+
+        boolean hasDeadlineRange() {
+            return deadlineFrom != null || deadlineTo != null;
+        }
+    }
+
+    enum TaskOrder {
+        // Most recently created first
+        NEWEST,
+        // Soonest deadline first, tasks without a deadline last
+        DEADLINE
+    }
+
+    // Where a page starts: the sort key of the last task of the previous page. The deadline only counts for
+    // DEADLINE order, where null means the task had none.
+    record TaskCursor(LocalDateTime deadline, Long id) {
+    }
+
+    // One keyset page of a group's tasks: the first `limit` tasks in the given order that come after the
+    // cursor (null for the first page). The cursor is not looked up, so it stays valid when its task is
+    // edited or deleted in the meantime.
+    List<TaskSummary> findSummaries(Long groupId, TaskFilter filter, TaskOrder order, TaskCursor cursor, int limit);
+}
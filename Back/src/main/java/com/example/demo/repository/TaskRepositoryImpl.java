@@ -0,0 +1,86 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.TaskSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    private static final String SELECT_SUMMARY = "SELECT new com.example.demo.dto.TaskSummary(t.id, t.groupId, " +
+            "t.createdBy, t.title, t.status, t.deadline, t.createdAt) FROM Task t WHERE t.groupId = :groupId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The filters are added only when set, so every query is a plain range over one of the indexes
+    // (group_id, status, id), (group_id, status, deadline, id), (group_id, deadline) or
+    // (group_id, created_by, status) instead of a scan that skips rows. Ids grow with creation time,
+    // so "newest" pages by id rather than by created_at.
+    @Override
+    public List<TaskSummary> findSummaries(Long groupId, TaskFilter filter, TaskOrder order, TaskCursor cursor,
+                                           int limit) {
+        if (order == TaskOrder.NEWEST) {
+            return query(groupId, filter, cursor != null ? " AND t.id < :afterId" : "", " ORDER BY t.id DESC",
+                    cursor, limit);
+        }
+
+        // Tasks with a deadline, then those without. A page can span both parts; a cursor without a
+        // deadline is already in the second one.
+        List<TaskSummary> page = new ArrayList<>();
+        if (cursor == null || cursor.deadline() != null) {
+            String after = cursor != null
+                    ? " AND (t.deadline > :afterDeadline OR (t.deadline = :afterDeadline AND t.id > :afterId))"
+                    : "";
+            page.addAll(query(groupId, filter, " AND t.deadline IS NOT NULL" + after,
+                    " ORDER BY t.deadline, t.id", cursor, limit));
+        }
+        if (page.size() < limit && !filter.hasDeadlineRange()) {
+            TaskCursor withoutDeadline = cursor != null && cursor.deadline() == null ? cursor : null;
+            page.addAll(query(groupId, filter,
+                    " AND t.deadline IS NULL" + (withoutDeadline != null ? " AND t.id > :afterId" : ""),
+                    " ORDER BY t.id", withoutDeadline, limit - page.size()));
+        }
+        return page;
+    }
+
+    private List<TaskSummary> query(Long groupId, TaskFilter filter, String after, String orderBy,
+                                    TaskCursor cursor, int limit) {
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+        Map<String, Object> params = new HashMap<>();
+        params.put("groupId", groupId);
+
+        if (filter.status() != null) {
+            jpql.append(" AND t.status = :status");
+            params.put("status", filter.status());
+        }
+        if (filter.createdBy() != null) {
+            jpql.append(" AND t.createdBy = :createdBy");
+            params.put("createdBy", filter.createdBy());
+        }
+        if (filter.deadlineFrom() != null) {
+            jpql.append(" AND t.deadline >= :deadlineFrom");
+            params.put("deadlineFrom", filter.deadlineFrom());
+        }
+        if (filter.deadlineTo() != null) {
+            jpql.append(" AND t.deadline < :deadlineTo");
+            params.put("deadlineTo", filter.deadlineTo());
+        }
+        if (cursor != null) {
+            params.put("afterId", cursor.id());
+            if (after.contains(":afterDeadline")) {
+                params.put("afterDeadline", cursor.deadline());
+            }
+        }
+        jpql.append(after).append(orderBy);
+
+        TypedQuery<TaskSummary> query = entityManager.createQuery(jpql.toString(), TaskSummary.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Resumable uploads in progress and their received chunks (tables upload_sessions and upload_chunks, see migration V11)
+@Repository
+public class UploadSessionRepository {
+
+    public record UploadSession(String id, Long groupId, Long uploadedBy, String title, long size, int chunkSize,
+                                LocalDateTime createdAt) {
+
+        public int chunkCount() {
+            return (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        }
+
+        public long chunkLength(int index) {
+            return Math.min(chunkSize, size - (long) index * chunkSize);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UploadSessionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void save(UploadSession session) {
+        jdbcTemplate.update("INSERT INTO upload_sessions (id, group_id, uploaded_by, title, file_size, chunk_size, " +
+                        "created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                session.id(), session.groupId(), session.uploadedBy(), session.title(), session.size(),
+                session.chunkSize(), Timestamp.valueOf(session.createdAt()));
+    }
+
+    public Optional<UploadSession> find(String id) {
+        return jdbcTemplate.query("SELECT id, group_id, uploaded_by, title, file_size, chunk_size, created_at " +
+                        "FROM upload_sessions WHERE id = ?",
+                (rs, row) -> new UploadSession(rs.getString(1), nullableLong(rs, 2), nullableLong(rs, 3),
+                        rs.getString(4), rs.getLong(5), rs.getInt(6), rs.getTimestamp(7).toLocalDateTime()),
+                id).stream().findFirst();
+    }
+
+    // Returns false if the chunk was already recorded (a retried or repeated PUT) or the session is gone.
+    // Checking for the session in the same statement means a chunk that finishes while its upload is aborted
+    // or expires never leaves a row behind: delete removes the session before its chunks.
+    public boolean markReceived(String id, int index) {
+        return jdbcTemplate.update("INSERT INTO upload_chunks (upload_id, chunk_index) SELECT ?, ? " +
+                "WHERE EXISTS (SELECT 1 FROM upload_sessions WHERE id = ?) ON CONFLICT DO NOTHING", id, index, id) == 1;
+    }
+
+    public void unmarkReceived(String id, int index) {
+        jdbcTemplate.update("DELETE FROM upload_chunks WHERE upload_id = ? AND chunk_index = ?", id, index);
+    }
+
+    public List<Integer> findReceived(String id) {
+        return jdbcTemplate.queryForList("SELECT chunk_index FROM upload_chunks WHERE upload_id = ? " +
+                "ORDER BY chunk_index", Integer.class, id);
+    }
+
+    public List<String> findCreatedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForList("SELECT id FROM upload_sessions WHERE created_at < ?", String.class,
+                Timestamp.valueOf(cutoff));
+    }
+
+    public boolean delete(String id) {
+        boolean deleted = jdbcTemplate.update("DELETE FROM upload_sessions WHERE id = ?", id) == 1;
+        jdbcTemplate.update("DELETE FROM upload_chunks WHERE upload_id = ?", id);
+        return deleted;
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UploadStatus;
+import com.example.demo.model.StudyMaterial;
+import com.example.demo.repository.UploadSessionRepository;
+import com.example.demo.repository.UploadSessionRepository.UploadSession;
+import com.example.demo.websocket.NotificationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads of large files, sent as fixed-size chunks that may arrive in any order and in parallel.
+ *
+ * An upload is initiated with its size, which fixes the chunk layout. Every chunk is written straight to its
+ * offset in the part file with positional writes (no assembly step, no per-chunk files) and recorded in
+ * upload_chunks once its SHA-256 has been verified and the data forced to disk, so an interrupted client
+ * asks for the received chunks and only sends the rest. Completing the upload hashes the part file and moves
+ * it into the {@link MaterialStore}. Sessions that are never completed expire with their part file.
+ *
+ * Failures are reported as IllegalArgumentException (bad request), IllegalStateException (conflict) or
+ * NoSuchElementException (unknown upload), each with an error code as its message.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository sessions;
+    private final MaterialStore store;
+    private final NotificationService notifier;
+    private final SearchIndex search;
+    private final ResourceRevisions revisions;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long maxSize;
+    private final Duration expireAfter;
+
+    // Uploads being completed; a concurrent complete, chunk or expiry of the same upload is refused
+    private final Set<String> completing = ConcurrentHashMap.newKeySet();
+
+    public ChunkedUploadService(UploadSessionRepository sessions, MaterialStore store, NotificationService notifier,
+                                SearchIndex search, ResourceRevisions revisions,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${materials.upload.chunk-size:8388608}") int chunkSize,
+                                @Value("${materials.upload.max-size:4294967296}") long maxSize,
+                                @Value("${materials.upload.expire-after-ms:86400000}") long expireAfterMillis) {
+        this.sessions = sessions;
+        this.store = store;
+        this.notifier = notifier;
+        this.search = search;
+        this.revisions = revisions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+        this.expireAfter = Duration.ofMillis(expireAfterMillis);
+    }
+
+    public UploadStatus initiate(Long groupId, Long uploadedBy, String title, long size) throws IOException {
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("INVALID_SIZE");
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), groupId, uploadedBy, title, size,
+                chunkSize, LocalDateTime.now());
+        Files.createFile(store.partFile(session.id()));
+        try {
+            sessions.save(session);
+        } catch (RuntimeException ex) {
+            Files.deleteIfExists(store.partFile(session.id()));
+            throw ex;
+        }
+        return status(session);
+    }
+
+    public Optional<UploadStatus> status(String id) {
+        return sessions.find(id).map(this::status);
+    }
+
+    // Writes chunk index at its offset in the part file; sha256 is the hex SHA-256 of the chunk's bytes
+    public void writeChunk(String id, int index, long offset, String sha256, InputStream body) throws IOException {
+        UploadSession session = sessions.find(id).orElseThrow(() -> new NoSuchElementException("UPLOAD_NOT_FOUND"));
+        if (index < 0 || index >= session.chunkCount()) {
+            throw new IllegalArgumentException("INVALID_CHUNK");
+        }
+        if (offset != (long) index * session.chunkSize()) {
+            throw new IllegalArgumentException("INVALID_OFFSET");
+        }
+        if (completing.contains(id)) {
+            throw new IllegalStateException("UPLOAD_COMPLETING");
+        }
+
+        // the chunk's bytes are about to be overwritten: until this copy is verified the chunk counts as missing,
+        // so a failed re-send of a received chunk is sent again instead of leaving bad data behind
+        sessions.unmarkReceived(id, index);
+
+        long expected = session.chunkLength(index);
+        MessageDigest digest = sha256();
+        long written = 0;
+        // WRITE without TRUNCATE_EXISTING: chunks sent in parallel each open their own channel on the same file
+        try (FileChannel channel = FileChannel.open(store.partFile(id), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > expected) {
+                    throw new IllegalArgumentException("CHUNK_TOO_LARGE");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes, offset + written + bytes.position());
+                }
+                written += read;
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("CHUNK_INCOMPLETE");
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256)) {
+                throw new IllegalArgumentException("CHUNK_CHECKSUM_MISMATCH");
+            }
+            // on disk before it's recorded as received, so a resumed upload never skips lost data
+            channel.force(false);
+        }
+        if (!sessions.markReceived(id, index) && sessions.find(id).isEmpty()) {
+            // aborted or expired while the chunk was being written
+            throw new NoSuchElementException("UPLOAD_NOT_FOUND");
+        }
+    }
+
+    // Verifies that every chunk arrived and that the file has the given SHA-256, and adds the material
+    public StudyMaterial complete(String id, String sha256) throws IOException {
+        if (sha256 == null || sha256.isBlank()) {
+            throw new IllegalArgumentException("CHECKSUM_REQUIRED");
+        }
+        if (!completing.add(id)) {
+            throw new IllegalStateException("UPLOAD_COMPLETING");
+        }
+        try {
+            UploadSession session = sessions.find(id).orElseThrow(() -> new NoSuchElementException("UPLOAD_NOT_FOUND"));
+            if (sessions.findReceived(id).size() != session.chunkCount()) {
+                throw new IllegalStateException("UPLOAD_INCOMPLETE");
+            }
+
+            Path part = store.partFile(id);
+            String actual = hash(part);
+            if (!actual.equalsIgnoreCase(sha256)) {
+                throw new IllegalArgumentException("CHECKSUM_MISMATCH");
+            }
+
+            // hashed outside of the transaction; the store's lock is taken before it writes
+            return transactionTemplate.execute(status -> {
+                try {
+                    MaterialStore.Blob blob = store.put(part, actual);
+                    StudyMaterial saved = store.reference(blob, session.groupId(), session.uploadedBy(),
+                            session.title());
+                    sessions.delete(id);
+                    search.indexMaterial(saved);
+                    revisions.groupChanged(saved.getGroupId());
+                    notifier.notifyMaterialNewForGroup(saved.getGroupId(), saved.getTitle());
+                    return saved;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } finally {
+            completing.remove(id);
+        }
+    }
+
+    public boolean abort(String id) throws IOException {
+        if (!completing.add(id)) {
+            throw new IllegalStateException("UPLOAD_COMPLETING");
+        }
+        try {
+            // only ids of existing sessions name a part file
+            boolean deleted = sessions.delete(id);
+            if (deleted) {
+                Files.deleteIfExists(store.partFile(id));
+            }
+            return deleted;
+        } finally {
+            completing.remove(id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${materials.upload.cleanup-interval-ms:3600000}",
+            initialDelayString = "${materials.upload.cleanup-interval-ms:3600000}")
+    public void expire() {
+        try {
+            for (String id : sessions.findCreatedBefore(LocalDateTime.now().minus(expireAfter))) {
+                try {
+                    abort(id);
+                } catch (IllegalStateException ex) {
+                    // being completed right now
+                }
+            }
+        } catch (Exception ex) {
+            System.err.println("Expiring uploads failed: " + ex.getMessage());
+        }
+    }
+
+    private UploadStatus status(UploadSession session) {
+        UploadStatus status = new UploadStatus();
+        status.uploadId = session.id();
+        status.groupId = session.groupId();
+        status.title = session.title();
+        status.size = session.size();
+        status.chunkSize = session.chunkSize();
+        status.chunkCount = session.chunkCount();
+        status.received = sessions.findReceived(session.id());
+        return status;
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
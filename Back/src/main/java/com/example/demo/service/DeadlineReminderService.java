@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Task;
+import com.example.demo.repository.DeadlineReminderRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.websocket.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the "deadline in 24 hours", "deadline in 1 hour" and "deadline passed" notifications of a task
+ * to its group.
+ *
+ * Pending reminders wait in a DelayQueue (a priority queue ordered by due time) served by a single thread,
+ * so the work done is proportional to the reminders that come due, not to the number of tasks or clients.
+ * The queue only holds tasks due within the load window: a periodic load over idx_tasks_deadline refills
+ * it, and task writes reschedule their task through {@link #taskChanged}.
+ *
+ * A reminder is recorded in deadline_reminders in the same transaction that queues its notification in the
+ * outbox, so it goes out once per task, kind and deadline, also across restarts. Queue entries are never
+ * removed; an entry whose task has since changed its deadline or been finished is skipped when it comes due.
+ */
+@Service
+public class DeadlineReminderService {
+
+    // Overdue reminders aren't sent for deadlines that passed longer ago (e.g. while the server was down)
+    static final Duration OVERDUE_GRACE = Duration.ofHours(24);
+
+    public enum Kind {
+        DUE_24H(Duration.ofHours(24)),
+        DUE_1H(Duration.ofHours(1)),
+        OVERDUE(Duration.ZERO);
+
+        final Duration before;
+
+        Kind(Duration before) {
+            this.before = before;
+        }
+    }
+
+    record Reminder(Long taskId, Kind kind, LocalDateTime deadline, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Reminder) other).dueAtMillis);
+        }
+    }
+
+    private final TaskRepository taskRepo;
+    private final DeadlineReminderRepository reminderRepo;
+    private final NotificationService notifier;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration window;
+
+    private final DelayQueue<Reminder> queue = new DelayQueue<>();
+    // Deadline each queued task was scheduled for; entries for any other deadline are stale
+    private final Map<Long, LocalDateTime> deadlines = new ConcurrentHashMap<>();
+    private Thread worker;
+
+    public DeadlineReminderService(TaskRepository taskRepo, DeadlineReminderRepository reminderRepo,
+                                   NotificationService notifier, PlatformTransactionManager transactionManager,
+                                   @Value("${reminders.load-interval-ms:3600000}") long loadIntervalMs) {
+        this.taskRepo = taskRepo;
+        this.reminderRepo = reminderRepo;
+        this.notifier = notifier;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // the first reminder is sent 24h ahead; load far enough to cover the time until the next load
+        this.window = Kind.DUE_24H.before.plusMillis(2 * loadIntervalMs);
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new Thread(this::run, "deadline-reminders");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.interrupt();
+    }
+
+    // Queues the reminders of every unfinished task due within the window
+    @Scheduled(fixedDelayString = "${reminders.load-interval-ms:3600000}")
+    public void load() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = now.minus(OVERDUE_GRACE);
+            deadlines.values().removeIf(deadline -> deadline.isBefore(from));
+
+            for (Task task : taskRepo.findUnfinishedDueBetween(from, now.plus(window))) {
+                schedule(task.getId(), task.getDeadline(), now);
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading deadline reminders: " + e.getMessage());
+        }
+    }
+
+    // Called after a task's deadline or status was written; takes effect once the transaction commits
+    public void taskChanged(Task task) {
+        Long taskId = task.getId();
+        LocalDateTime deadline = "DONE".equals(task.getStatus()) ? null : task.getDeadline();
+        if (taskId == null) {
+            return;
+        }
+
+        Runnable reschedule = () -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (deadline == null || deadline.isBefore(now.minus(OVERDUE_GRACE)) || !deadline.isBefore(now.plus(window))) {
+                deadlines.remove(taskId);
+            } else {
+                schedule(taskId, deadline, now);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reschedule.run();
+                }
+            });
+        } else {
+            reschedule.run();
+        }
+    }
+
+    private void schedule(Long taskId, LocalDateTime deadline, LocalDateTime now) {
+        // the databases keep milliseconds (SQLite) or microseconds; compare deadlines at the coarser of them
+        LocalDateTime key = deadline.truncatedTo(ChronoUnit.MILLIS);
+        if (key.equals(deadlines.put(taskId, key))) {
+            return;
+        }
+
+        // Reminders still ahead are queued at their time; of those already due only the latest is sent, now
+        Kind due = null;
+        for (Kind kind : Kind.values()) {
+            LocalDateTime at = key.minus(kind.before);
+            if (at.isAfter(now)) {
+                queue.add(new Reminder(taskId, kind, key, at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+            } else {
+                due = kind;
+            }
+        }
+        if (due != null) {
+            queue.add(new Reminder(taskId, due, key, System.currentTimeMillis()));
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                send(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                System.err.println("Error sending deadline reminder: " + e.getMessage());
+            }
+        }
+    }
+
+    private void send(Reminder reminder) {
+        if (!reminder.deadline().equals(deadlines.get(reminder.taskId()))) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Task task = taskRepo.findById(reminder.taskId()).orElse(null);
+            if (task == null || task.getDeadline() == null || "DONE".equals(task.getStatus())
+                    || !reminder.deadline().equals(task.getDeadline().truncatedTo(ChronoUnit.MILLIS))) {
+                return;
+            }
+            if (!reminderRepo.markSent(task.getId(), reminder.kind().name(), reminder.deadline())) {
+                return;
+            }
+
+            switch (reminder.kind()) {
+                case DUE_24H -> notifier.notifyDeadlineSoonForGroup(task.getGroupId(), task.getTitle(), 24);
+                case DUE_1H -> notifier.notifyDeadlineSoonForGroup(task.getGroupId(), task.getTitle(), 1);
+                case OVERDUE -> notifier.notifyDeadlineOverdueForGroup(task.getGroupId(), task.getTitle());
+            }
+        });
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TimelineBucket;
+import com.example.demo.model.Task;
+import com.example.demo.model.TaskEvent;
+import com.example.demo.repository.GroupStatsRepository;
+import com.example.demo.repository.TaskEventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the /stats counters and the task event log in step with the tasks table.
+ *
+ * Task writes call in here inside their own transaction, so a counter change commits or rolls back
+ * together with the task. Each task contributes to its group's totals, to its creator's counters and,
+ * once DONE, to the completion histogram on the day of its completedAt; an update removes the old
+ * contribution and adds the new one. A periodic rebuild repairs any drift (e.g. tasks changed outside
+ * the REST API).
+ *
+ * Every status transition is also appended to task_events, which backs the completion timeline.
+ */
+@Service
+public class GroupStatsService {
+
+    private final GroupStatsRepository statsRepo;
+    private final TaskEventRepository eventRepo;
+
+    public GroupStatsService(GroupStatsRepository statsRepo, TaskEventRepository eventRepo) {
+        this.statsRepo = statsRepo;
+        this.eventRepo = eventRepo;
+    }
+
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        LocalDate bucketStart(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate next(LocalDate bucketStart) {
+            return switch (this) {
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+            };
+        }
+
+        // Default range when the caller gives no start: the last 30 days, 12 weeks or 12 months
+        LocalDate defaultFrom(LocalDate to) {
+            return switch (this) {
+                case DAY -> to.minusDays(29);
+                case WEEK -> to.minusWeeks(11);
+                case MONTH -> to.minusMonths(11);
+            };
+        }
+
+        ChronoUnit unit() {
+            return switch (this) {
+                case DAY -> ChronoUnit.DAYS;
+                case WEEK -> ChronoUnit.WEEKS;
+                case MONTH -> ChronoUnit.MONTHS;
+            };
+        }
+
+        // Upper bound on the buckets of one timeline request: a year of days, two years of weeks or months
+        int maxBuckets() {
+            return switch (this) {
+                case DAY -> 366;
+                case WEEK -> 105;
+                case MONTH -> 24;
+            };
+        }
+    }
+
+    // The part of a task the counters depend on; capture it before modifying the entity
+    public record Contribution(Long groupId, Long createdBy, String status, String day) {
+
+        public static Contribution of(Task task) {
+            String day = task.getCompletedAt() != null ? task.getCompletedAt().toLocalDate().toString() : null;
+            return new Contribution(task.getGroupId(), task.getCreatedBy(), task.getStatus(), day);
+        }
+
+        boolean done() {
+            return "DONE".equals(status);
+        }
+    }
+
+    public void taskCreated(Task task) {
+        stampCompletion(task, false);
+        apply(Contribution.of(task), 1);
+        record(task, null, task.getStatus());
+    }
+
+    // after must be the managed entity: a changed completedAt is flushed with the rest of the task
+    public void taskChanged(Contribution before, Task after) {
+        stampCompletion(after, before.done());
+
+        Contribution now = Contribution.of(after);
+        if (!now.equals(before)) {
+            apply(before, -1);
+            apply(now, 1);
+        }
+        if (!Objects.equals(before.status(), after.getStatus())) {
+            record(after, before.status(), after.getStatus());
+        }
+    }
+
+    public void taskDeleted(Task task) {
+        apply(Contribution.of(task), -1);
+        record(task, task.getStatus(), null);
+    }
+
+    // Tasks created and completed per bucket from the first bucket containing from to the one containing to
+    @Transactional(readOnly = true)
+    public List<TimelineBucket> timeline(Long groupId, Granularity granularity, LocalDate from, LocalDate to) {
+        LocalDate first = granularity.bucketStart(from != null ? from : granularity.defaultFrom(to));
+        LocalDate end = granularity.next(granularity.bucketStart(to));
+        if (first.isAfter(to) || granularity.unit().between(first, end) > granularity.maxBuckets()) {
+            throw new IllegalArgumentException("INVALID_RANGE");
+        }
+
+        List<TimelineBucket> buckets = new ArrayList<>();
+        for (LocalDate start = first; start.isBefore(end); start = granularity.next(start)) {
+            buckets.add(new TimelineBucket(start.toString()));
+        }
+
+        // Events arrive ordered by time, so the current bucket only ever moves forward
+        int index = 0;
+        LocalDate bucketEnd = granularity.next(first);
+        try (Stream<Object[]> events = eventRepo.streamTimeline(groupId, first.atStartOfDay(), end.atStartOfDay())) {
+            for (Object[] event : (Iterable<Object[]>) events::iterator) {
+                LocalDate day = ((LocalDateTime) event[0]).toLocalDate();
+                while (!day.isBefore(bucketEnd)) {
+                    index++;
+                    bucketEnd = granularity.next(bucketEnd);
+                }
+                if (event[1] == null) {
+                    buckets.get(index).created++;
+                }
+                if ("DONE".equals(event[2])) {
+                    buckets.get(index).completed++;
+                }
+            }
+        }
+        return buckets;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.reconcile-interval-ms:3600000}",
+            initialDelayString = "${stats.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        try {
+            statsRepo.rebuild();
+        } catch (Exception e) {
+            System.err.println("Error rebuilding group statistics: " + e.getMessage());
+        }
+    }
+
+    private void stampCompletion(Task task, boolean wasDone) {
+        if (!"DONE".equals(task.getStatus())) {
+            task.setCompletedAt(null);
+        } else if (!wasDone || task.getCompletedAt() == null) {
+            task.setCompletedAt(LocalDateTime.now());
+        }
+    }
+
+    private void record(Task task, String fromStatus, String toStatus) {
+        TaskEvent event = new TaskEvent();
+        event.setTaskId(task.getId());
+        event.setGroupId(task.getGroupId());
+        event.setFromStatus(fromStatus);
+        event.setToStatus(toStatus);
+        eventRepo.save(event);
+    }
+
+    private void apply(Contribution task, int sign) {
+        if (task.groupId() == null) {
+            return;
+        }
+
+        statsRepo.addToGroup(task.groupId(), sign,
+                "OPEN".equals(task.status()) ? sign : 0,
+                "IN_PROGRESS".equals(task.status()) ? sign : 0,
+                task.done() ? sign : 0);
+
+        if (task.createdBy() != null) {
+            statsRepo.addToMember(task.groupId(), task.createdBy(), sign, task.done() ? sign : 0);
+        }
+        if (task.done() && task.day() != null) {
+            statsRepo.addCompletions(task.groupId(), task.day(), sign);
+        }
+    }
+}
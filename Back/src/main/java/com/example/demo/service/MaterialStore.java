@@ -0,0 +1,238 @@
+package com.example.demo.service;
+
+import com.example.demo.model.StudyMaterial;
+import com.example.demo.repository.StudyMaterialRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed store for uploaded files. Each distinct file is kept once under uploads/, named by its
+ * SHA-256 and sharded by the first two byte pairs of the hash (uploads/ab/cd/abcd...), so the same document
+ * shared in many groups takes disk space once.
+ *
+ * The references are the materials rows pointing at a blob (same sha256 and file_path); a blob is deleted
+ * together with its last row. Uploads and deletes of one hash are serialized by a striped lock, which an
+ * upload keeps until its transaction completes, so a delete never removes a blob that a concurrent upload
+ * has just referenced. The lock is always taken before the transaction writes (the writer pool has a single
+ * connection in production), never while holding the connection.
+ */
+@Service
+public class MaterialStore {
+
+    public record Blob(String sha256, Path path, long size) {
+    }
+
+    static final Path UPLOAD_DIR = Paths.get("uploads");
+    private static final Path TMP_DIR = UPLOAD_DIR.resolve("tmp");
+
+    private final ReentrantLock[] locks = new ReentrantLock[64];
+
+    private final StudyMaterialRepository materialRepo;
+    private final PreviewService previews;
+    private final TransactionTemplate transactionTemplate;
+
+    public MaterialStore(StudyMaterialRepository materialRepo, PreviewService previews,
+                         PlatformTransactionManager transactionManager) {
+        this.materialRepo = materialRepo;
+        this.previews = previews;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        try {
+            Files.createDirectories(TMP_DIR);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static boolean isSha256(String value) {
+        return value != null && value.matches("[0-9a-f]{64}");
+    }
+
+    public Path pathFor(String sha256) {
+        return UPLOAD_DIR.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    // Streams the content into a temporary file while hashing it, then moves it into place unless the same
+    // content is already stored. Call within the transaction that saves the referencing material.
+    public Blob put(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(TMP_DIR, "upload", ".part");
+        String sha256;
+        try {
+            sha256 = copyHashing(in, tmp);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        return put(tmp, sha256);
+    }
+
+    // Moves a complete file from the temporary directory (see partFile) into place as the blob with the given
+    // hash, or drops it if that content is already stored. Call within the transaction that saves the material.
+    public Blob put(Path tmp, String sha256) throws IOException {
+        Path target = pathFor(sha256);
+        boolean created = false;
+        lockUntilCompletion(sha256);
+        try {
+            if (Files.exists(target)) {
+                Files.delete(tmp);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                created = true;
+                previews.generateAfterCommit(target);
+            }
+            return new Blob(sha256, target, Files.size(target));
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        } finally {
+            if (created) {
+                deleteOnRollback(target);
+            }
+        }
+    }
+
+    // A file in the temporary directory, on the same file system as the blobs so it can be moved into place
+    public Path partFile(String name) {
+        return TMP_DIR.resolve(name + ".part");
+    }
+
+    // Saves a material referencing the blob
+    public StudyMaterial reference(Blob blob, Long groupId, Long uploadedBy, String title) {
+        StudyMaterial material = new StudyMaterial();
+        material.setGroupId(groupId);
+        material.setUploadedBy(uploadedBy);
+        material.setTitle(title);
+        material.setUrl(null);
+        material.setFilePath(blob.path().toString());
+        material.setSha256(blob.sha256());
+        material.setFileSize(blob.size());
+        material.setCreatedAt(LocalDateTime.now());
+        return materialRepo.save(material);
+    }
+
+    // The stored blob with this hash, if any; it stays in place until the calling transaction completes
+    public Optional<Blob> find(String sha256) throws IOException {
+        Path target = pathFor(sha256);
+        lockUntilCompletion(sha256);
+        if (!Files.exists(target)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Blob(sha256, target, Files.size(target)));
+    }
+
+    // Deletes the material and, if it was the last reference, its blob. Must not be called inside a transaction.
+    public void delete(StudyMaterial material) {
+        String sha256 = material.getSha256();
+        Path path = material.getFilePath() != null && !material.getFilePath().isBlank()
+                ? Paths.get(material.getFilePath()) : null;
+        if (path == null || !isSha256(sha256) || !path.equals(pathFor(sha256))) {
+            // a link, or a file uploaded before the store was content-addressed: not shared
+            materialRepo.deleteById(material.getId());
+            deleteFile(path);
+            return;
+        }
+
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            Long remaining = transactionTemplate.execute(status -> {
+                materialRepo.deleteById(material.getId());
+                materialRepo.flush();
+                return materialRepo.countBySha256AndFilePath(sha256, material.getFilePath());
+            });
+            if (remaining != null && remaining == 0) {
+                deleteFile(path);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String sha256) {
+        return locks[Integer.parseInt(sha256.substring(0, 2), 16) % locks.length];
+    }
+
+    private void lockUntilCompletion(String sha256) {
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    // Ordered before the unlock above, so it runs while the hash is still locked
+    private void deleteOnRollback(Path target) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deleteFile(target);
+                }
+            }
+        });
+    }
+
+    private static void deleteFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            System.err.println("Warning: could not delete file: " + ex.getMessage());
+        }
+        PreviewService.deletePreviews(path);
+    }
+
+    // Streams the content to target through a fixed-size buffer, hashing it on the way; returns the hex SHA-256.
+    // Nothing of the file is held in memory (the servlet container has already spooled the part to disk).
+    private static String copyHashing(InputStream in, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        try (DigestInputStream hashing = new DigestInputStream(in, digest)) {
+            Files.copy(hashing, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.demo.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Small previews of uploaded files, so a material can be recognised without downloading it: a PNG thumbnail
+ * of the first page or image and a plain-text snippet from the start of the document.
+ *
+ * They are generated in the background on the bounded previewExecutor once the upload has committed, and
+ * stored as files next to the material's file (&lt;file&gt;.thumb.png, &lt;file&gt;.preview.txt), so stored
+ * blobs shared by several materials share their previews too. Files that can't be previewed get a
+ * &lt;file&gt;.nopreview marker instead. A preview that is requested before it exists is queued again, which
+ * also covers files uploaded before previews existed and previews dropped because the queue was full.
+ */
+@Service
+public class PreviewService {
+
+    static final int THUMBNAIL_WIDTH = 240;
+    static final int SNIPPET_LENGTH = 500;
+    // The snippet of a PDF comes from its first pages only
+    private static final int SNIPPET_PAGES = 2;
+    private static final int SNIFF_BYTES = 4096;
+
+    public enum State { READY, PENDING, UNAVAILABLE }
+
+    private final TaskExecutor executor;
+    // Files queued or being previewed, so repeated requests don't queue them again
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    public PreviewService(@Qualifier("previewExecutor") TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    public static Path thumbnailFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".thumb.png");
+    }
+
+    public static Path snippetFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".preview.txt");
+    }
+
+    private static Path markerFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".nopreview");
+    }
+
+    // Queues the previews of a newly stored file once the current transaction commits
+    public void generateAfterCommit(Path file) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    request(file);
+                }
+            });
+        } else {
+            request(file);
+        }
+    }
+
+    // Whether the preview (thumbnail or snippet) of file exists; if it can still be made, it is queued
+    public State state(Path preview, Path file) {
+        if (Files.exists(preview)) {
+            return State.READY;
+        }
+        // done, but this kind of preview wasn't made (e.g. no thumbnail of a text file)
+        if (Files.exists(markerFor(file)) || Files.exists(thumbnailFor(file)) || Files.exists(snippetFor(file))
+                || !Files.exists(file)) {
+            return State.UNAVAILABLE;
+        }
+        request(file);
+        return State.PENDING;
+    }
+
+    public void request(Path file) {
+        if (!pending.add(file)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(file);
+                } catch (Exception ex) {
+                    System.err.println("Could not preview " + file + ": " + ex.getMessage());
+                } finally {
+                    pending.remove(file);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // queue full; generated when it is requested again
+            pending.remove(file);
+        }
+    }
+
+    public static void deletePreviews(Path file) {
+        for (Path preview : new Path[]{thumbnailFor(file), snippetFor(file), markerFor(file)}) {
+            try {
+                Files.deleteIfExists(preview);
+            } catch (IOException ex) {
+                System.err.println("Warning: could not delete preview: " + ex.getMessage());
+            }
+        }
+    }
+
+    void generate(Path file) throws IOException {
+        if (!Files.exists(file) || Files.exists(thumbnailFor(file)) || Files.exists(snippetFor(file))) {
+            return;
+        }
+
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(SNIFF_BYTES);
+        }
+
+        BufferedImage thumbnail = null;
+        String snippet = null;
+        try {
+            if (startsWith(head, "%PDF-")) {
+                try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+                    if (document.getNumberOfPages() > 0) {
+                        // rendered at the resolution that gives the thumbnail width, not at full size
+                        float pageWidth = document.getPage(0).getMediaBox().getWidth();
+                        float scale = pageWidth > 0 ? THUMBNAIL_WIDTH / pageWidth : 1;
+                        thumbnail = new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+
+                        PDFTextStripper stripper = new PDFTextStripper();
+                        stripper.setEndPage(SNIPPET_PAGES);
+                        snippet = stripper.getText(document);
+                    }
+                }
+            } else {
+                thumbnail = readImageScaled(file);
+                if (thumbnail == null) {
+                    snippet = decodeText(head);
+                }
+            }
+        } catch (IOException ex) {
+            // damaged or encrypted document: not previewed
+            System.err.println("Could not preview " + file + ": " + ex.getMessage());
+        }
+
+        if (thumbnail != null) {
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "thumb", ".tmp");
+            ImageIO.write(scaleToWidth(thumbnail), "png", tmp.toFile());
+            Files.move(tmp, thumbnailFor(file), StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (snippet != null && !snippet.isBlank()) {
+            String text = snippet.strip().replaceAll("\\s+", " ");
+            text = text.substring(0, Math.min(text.length(), SNIPPET_LENGTH));
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "preview", ".tmp");
+            Files.writeString(tmp, text, StandardCharsets.UTF_8);
+            Files.move(tmp, snippetFor(file), StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (thumbnail == null && (snippet == null || snippet.isBlank())) {
+            Files.createFile(markerFor(file));
+        }
+    }
+
+    // Decodes only every n-th pixel of large images, so a photo is never held in memory at full size
+    private static BufferedImage readImageScaled(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, reader.getWidth(0) / THUMBNAIL_WIDTH);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage image) {
+        if (image.getWidth() <= THUMBNAIL_WIDTH) {
+            return image;
+        }
+        int height = Math.max(1, image.getHeight() * THUMBNAIL_WIDTH / image.getWidth());
+        BufferedImage scaled = new BufferedImage(THUMBNAIL_WIDTH, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, THUMBNAIL_WIDTH, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    // The start of a plain-text file, or null if the bytes aren't UTF-8 text
+    private static String decodeText(byte[] head) {
+        for (byte b : head) {
+            if (b == 0) {
+                return null;
+            }
+        }
+        try {
+            CharBuffer text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(head, 0, trimPartialCharacter(head)));
+            return text.toString();
+        } catch (CharacterCodingException ex) {
+            return null;
+        }
+    }
+
+    // Length of head without a multi-byte character cut off at its end
+    private static int trimPartialCharacter(byte[] head) {
+        int end = head.length;
+        for (int i = 1; i <= Math.min(3, head.length); i++) {
+            int b = head[head.length - i] & 0xFF;
+            if ((b & 0xC0) == 0xC0) {
+                // lead byte: keep the character only if all of its bytes are there
+                int length = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return i >= length ? end : head.length - i;
+            }
+            if ((b & 0x80) == 0) {
+                return end;
+            }
+        }
+        return end;
+    }
+
+    private static boolean startsWith(byte[] head, String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.US_ASCII);
+        return head.length >= bytes.length && Arrays.equals(head, 0, bytes.length, bytes, 0, bytes.length);
+    }
+}
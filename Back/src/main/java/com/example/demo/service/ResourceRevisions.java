@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Version stamps of the data behind the read endpoints, turned into the strong ETags they answer
+ * conditional GETs with. There is one revision for the list of groups, one per group (its members,
+ * tasks and materials) and one per user's notifications. Every write bumps the revisions it affects.
+ *
+ * Revisions live in the resource_revisions table, so every instance sharing the database hands out
+ * the same ETags, and they survive restarts. An If-None-Match costs one primary key lookup.
+ *
+ * Writers bump a revision after their write, in the same transaction when there is one, so the new
+ * revision becomes visible together with the data. Readers take the ETag before they read the data.
+ * A read that overlaps a write therefore goes out with the old ETag at worst, and the next request
+ * fetches it again. Data is never cached under an ETag that is newer than the data.
+ */
+@Service
+public class ResourceRevisions {
+
+    private static final String GROUPS = "groups";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResourceRevisions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public String groupsEtag() {
+        return etag(GROUPS);
+    }
+
+    @Transactional(readOnly = true)
+    public String groupEtag(Long groupId) {
+        return etag("group:" + groupId);
+    }
+
+    @Transactional(readOnly = true)
+    public String notificationsEtag(Long userId) {
+        return etag("notifications:" + userId);
+    }
+
+    // A group was created, renamed or deleted
+    public void groupsChanged() {
+        bump(List.of(GROUPS));
+    }
+
+    // The members, tasks or materials of the group changed
+    public void groupChanged(Long groupId) {
+        if (groupId != null) {
+            bump(List.of("group:" + groupId));
+        }
+    }
+
+    public void notificationsChanged(Collection<Long> userIds) {
+        bump(userIds.stream().distinct().sorted().map(id -> "notifications:" + id).toList());
+    }
+
+    public void notificationsChanged(Long userId) {
+        if (userId != null) {
+            notificationsChanged(List.of(userId));
+        }
+    }
+
+    private String etag(String key) {
+        List<Long> revision = jdbcTemplate.queryForList(
+                "SELECT revision FROM resource_revisions WHERE resource_key = ?", Long.class, key);
+        return "\"" + (revision.isEmpty() ? 0 : revision.get(0)) + "\"";
+    }
+
+    // Keys are bumped in a stable order so two transactions bumping the same keys can't deadlock
+    private void bump(Collection<String> keys) {
+        for (String key : keys) {
+            if (increment(key) == 0
+                    && jdbcTemplate.update("INSERT INTO resource_revisions (resource_key, revision) VALUES (?, 1) " +
+                    "ON CONFLICT DO NOTHING", key) == 0) {
+                // another writer created the row in the meantime
+                increment(key);
+            }
+        }
+    }
+
+    private int increment(String key) {
+        return jdbcTemplate.update("UPDATE resource_revisions SET revision = revision + 1 WHERE resource_key = ?", key);
+    }
+}
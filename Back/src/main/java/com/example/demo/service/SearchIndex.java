@@ -0,0 +1,380 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SearchHit;
+import com.example.demo.dto.SearchResults;
+import com.example.demo.model.ChatMessage;
+import com.example.demo.model.StudyMaterial;
+import com.example.demo.model.Task;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text index of the tasks, chat messages and materials of all groups, served by GET /search.
+ *
+ * An embedded Lucene index (search.index-dir; in memory if blank) rather than database full-text search,
+ * so it works the same on SQLite, PostgreSQL and the H2 test database. Every write to an indexed entity
+ * updates its document once the write has committed; searches see it from their next refresh.
+ *
+ * The index itself is not the record of what changed: every write also adds a row to search_changes in
+ * the writer's transaction (when it has one), so the write can't commit without it. Every few seconds
+ * the rows changed since the last sync are read back from the database, re-indexed, and the index is
+ * committed to disk together with the time it is synced up to.
+ * That repairs updates that were lost (a crash before the commit, a failed afterCommit) and brings in
+ * the writes of other instances sharing the database, each of which keeps its own index. On startup the
+ * index catches up the same way, and is rebuilt from the database when it was never synced, was synced
+ * too long ago for the retained changes to cover, or holds a different number of documents than there
+ * are rows.
+ */
+@Service
+public class SearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest result that can be paged to
+    public static final int MAX_RESULTS = 1000;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String GROUP = "group";
+    private static final String TITLE = "title";
+    private static final String BODY = "body";
+
+    // Commit user data: every change recorded before this time (ISO date-time) is in the committed index
+    private static final String SYNCED_UNTIL = "syncedUntil";
+    // A change becomes visible when its transaction commits, which can be a while after it was recorded
+    // (and the clocks of several instances differ), so each sync looks back this far
+    private static final Duration LATE_COMMIT_GRACE = Duration.ofMinutes(1);
+    private static final Duration CHANGE_RETENTION = Duration.ofDays(1);
+
+    // What is indexed of each type: id, group id, title and body columns of its table
+    private record Source(String type, String table, String columns) {
+    }
+
+    private static final List<Source> SOURCES = List.of(
+            new Source("task", "tasks", "id, group_id, title, description"),
+            new Source("chat", "chat_messages", "id, group_id, user_name, content"),
+            new Source("material", "materials", "id, group_id, title, url"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+
+    public SearchIndex(JdbcTemplate jdbcTemplate, @Value("${search.index-dir:search-index}") String indexDir)
+            throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(indexDir));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searchers = new SearcherManager(writer, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        try {
+            LocalDateTime syncedUntil = syncedUntil();
+            if (syncedUntil == null || syncedUntil.isBefore(LocalDateTime.now().minus(CHANGE_RETENTION))) {
+                rebuild();
+                return;
+            }
+            applyChanges();
+            if (writer.getDocStats().numDocs != rowCount()) {
+                System.out.println("Search index out of step with the database, rebuilding it");
+                rebuild();
+            }
+        } catch (Exception e) {
+            System.err.println("Error building the search index: " + e.getMessage());
+        }
+    }
+
+    // Re-indexes every task, chat message and material, streaming the rows from the database
+    public synchronized void rebuild() throws IOException {
+        LocalDateTime started = LocalDateTime.now();
+        writer.deleteAll();
+        for (Source source : SOURCES) {
+            jdbcTemplate.query("SELECT " + source.columns() + " FROM " + source.table() + " WHERE group_id IS NOT NULL",
+                    (RowCallbackHandler) rs -> update(document(source.type(), rs.getLong(1), rs.getLong(2),
+                            rs.getString(3), rs.getString(4))));
+        }
+        commit(started);
+        searchers.maybeRefresh();
+    }
+
+    public void indexTask(Task task) {
+        if (task.getGroupId() != null) {
+            recordChange("task", task.getId());
+            afterCommit(document("task", task.getId(), task.getGroupId(), task.getTitle(), task.getDescription()));
+        }
+    }
+
+    public void indexMessage(ChatMessage message) {
+        if (message.getGroupId() != null) {
+            recordChange("chat", message.getId());
+            afterCommit(document("chat", message.getId(), message.getGroupId(), message.getUserName(),
+                    message.getContent()));
+        }
+    }
+
+    public void indexMaterial(StudyMaterial material) {
+        if (material.getGroupId() != null) {
+            recordChange("material", material.getId());
+            afterCommit(document("material", material.getId(), material.getGroupId(), material.getTitle(),
+                    material.getUrl()));
+        }
+    }
+
+    public void removeTask(Long id) {
+        recordChange("task", id);
+        afterCommit(new Term(KEY, "task:" + id), null);
+    }
+
+    public void removeMaterial(Long id) {
+        recordChange("material", id);
+        afterCommit(new Term(KEY, "material:" + id), null);
+    }
+
+    // Ranked matches of the query within one group; words are ANDed, "quoted phrases", prefix* and -excluded
+    // words are understood, and anything else in the query is taken literally rather than rejected
+    public SearchResults search(Long groupId, String queryText, int page, int size) throws IOException {
+        if (queryText == null || queryText.isBlank()) {
+            throw new IllegalArgumentException("QUERY_REQUIRED");
+        }
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE || (long) (page + 1) * size > MAX_RESULTS) {
+            throw new IllegalArgumentException("INVALID_PAGE");
+        }
+
+        SearchResults results = new SearchResults();
+        results.page = page;
+        results.size = size;
+
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(TITLE, 2f, BODY, 1f));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query text = parser.parse(queryText);
+        if (text == null) {
+            // nothing searchable in the query (only punctuation)
+            return results;
+        }
+        Query query = new BooleanQuery.Builder()
+                .add(text, BooleanClause.Occur.MUST)
+                .add(LongPoint.newExactQuery(GROUP, groupId), BooleanClause.Occur.FILTER)
+                .build();
+
+        searchers.maybeRefresh();
+        IndexSearcher searcher = searchers.acquire();
+        try {
+            TopDocs top = searcher.search(query, (page + 1) * size);
+            results.total = top.totalHits.value;
+            StoredFields stored = searcher.storedFields();
+            for (int i = page * size; i < top.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = top.scoreDocs[i];
+                Document doc = stored.document(scoreDoc.doc);
+                SearchHit hit = new SearchHit();
+                hit.type = doc.get(TYPE);
+                hit.id = doc.getField(ID).numericValue().longValue();
+                hit.title = doc.get(TITLE);
+                String body = doc.get(BODY);
+                hit.snippet = body.length() > SNIPPET_LENGTH ? body.substring(0, SNIPPET_LENGTH) : body;
+                hit.score = scoreDoc.score;
+                results.hits.add(hit);
+            }
+        } finally {
+            searchers.release(searcher);
+        }
+        return results;
+    }
+
+    @Scheduled(fixedDelayString = "${search.commit-interval-ms:5000}")
+    public void sync() {
+        try {
+            applyChanges();
+        } catch (Exception e) {
+            System.err.println("Error syncing the search index: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.prune-interval-ms:3600000}",
+            initialDelayString = "${search.prune-interval-ms:3600000}")
+    public void pruneChanges() {
+        try {
+            jdbcTemplate.update("DELETE FROM search_changes WHERE changed_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minus(CHANGE_RETENTION)));
+        } catch (Exception e) {
+            System.err.println("Error pruning search changes: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searchers.close();
+        writer.close();
+        directory.close();
+    }
+
+    // Re-indexes the rows changed since the last sync from what is in the database now, then commits
+    private synchronized void applyChanges() throws IOException {
+        LocalDateTime since = syncedUntil();
+        if (since == null) {
+            // not built yet
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+
+        Set<String> changed = new LinkedHashSet<>();
+        jdbcTemplate.query("SELECT entity_type, entity_id FROM search_changes WHERE changed_at > ?",
+                (RowCallbackHandler) rs -> changed.add(rs.getString(1) + ":" + rs.getLong(2)),
+                Timestamp.valueOf(since.minus(LATE_COMMIT_GRACE)));
+        for (String key : changed) {
+            String[] parts = key.split(":");
+            reindex(parts[0], Long.parseLong(parts[1]));
+        }
+
+        // with nothing to apply, the sync time is still moved on now and then so a quiet index isn't rebuilt
+        if (!changed.isEmpty() || writer.hasUncommittedChanges() || since.isBefore(started.minus(LATE_COMMIT_GRACE))) {
+            commit(started);
+        }
+    }
+
+    private void reindex(String type, long id) throws IOException {
+        Source source = SOURCES.stream().filter(s -> s.type().equals(type)).findFirst().orElse(null);
+        if (source == null) {
+            return;
+        }
+        List<Document> docs = jdbcTemplate.query("SELECT " + source.columns() + " FROM " + source.table() +
+                        " WHERE id = ? AND group_id IS NOT NULL",
+                (rs, rowNum) -> document(type, rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4)), id);
+        Term key = new Term(KEY, type + ":" + id);
+        if (docs.isEmpty()) {
+            writer.deleteDocuments(key);
+        } else {
+            writer.updateDocument(key, docs.get(0));
+        }
+    }
+
+    private long rowCount() {
+        long count = 0;
+        for (Source source : SOURCES) {
+            Long rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + source.table() + " WHERE group_id IS NOT NULL", Long.class);
+            count += rows != null ? rows : 0;
+        }
+        return count;
+    }
+
+    private LocalDateTime syncedUntil() {
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            if (SYNCED_UNTIL.equals(entry.getKey())) {
+                return LocalDateTime.parse(entry.getValue());
+            }
+        }
+        return null;
+    }
+
+    private void commit(LocalDateTime syncedUntil) throws IOException {
+        writer.setLiveCommitData(Map.of(SYNCED_UNTIL, syncedUntil.toString()).entrySet());
+        writer.commit();
+    }
+
+    // Recorded in the writer's transaction when there is one, so the change can't commit without it
+    private void recordChange(String type, Long id) {
+        jdbcTemplate.update("INSERT INTO search_changes (entity_type, entity_id, changed_at) VALUES (?, ?, ?)",
+                type, id, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Adds a document straight to the index, without recording a change (for benchmarks)
+    void put(String type, Long id, Long groupId, String title, String body) {
+        update(document(type, id, groupId, title, body));
+    }
+
+    private static Document document(String type, Long id, Long groupId, String title, String body) {
+        Document doc = new Document();
+        doc.add(new StringField(KEY, type + ":" + id, Field.Store.NO));
+        doc.add(new StoredField(TYPE, type));
+        doc.add(new StoredField(ID, id));
+        doc.add(new LongPoint(GROUP, groupId));
+        doc.add(new TextField(TITLE, title != null ? title : "", Field.Store.YES));
+        doc.add(new TextField(BODY, body != null ? body : "", Field.Store.YES));
+        return doc;
+    }
+
+    private void afterCommit(Document doc) {
+        afterCommit(new Term(KEY, doc.get(TYPE) + ":" + doc.getField(ID).numericValue()), doc);
+    }
+
+    // Replaces (or with a null doc deletes) the document once the current transaction has committed
+    private void afterCommit(Term key, Document doc) {
+        Runnable apply = () -> {
+            try {
+                if (doc != null) {
+                    writer.updateDocument(key, doc);
+                } else {
+                    writer.deleteDocuments(key);
+                }
+            } catch (Exception e) {
+                // the recorded change brings the document up to date with the next sync
+                System.err.println("Error updating the search index: " + e.getMessage());
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void update(Document doc) {
+        try {
+            writer.updateDocument(new Term(KEY, doc.get(TYPE) + ":" + doc.getField(ID).numericValue()), doc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
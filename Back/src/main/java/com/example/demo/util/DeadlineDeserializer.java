@@ -0,0 +1,35 @@
+package com.example.demo.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Reads a deadline sent either as an ISO date-time or, as the desktop client does, as a plain date,
+// which means the end of that day. A blank value clears the deadline.
+public class DeadlineDeserializer extends JsonDeserializer<LocalDateTime> {
+
+    private static LocalDateTime parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() == 10) {
+            return LocalDate.parse(trimmed).atTime(23, 59);
+        }
+        return LocalDateTime.parse(trimmed);
+    }
+
+    @Override
+    public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        try {
+            return parse(p.getValueAsString());
+        } catch (RuntimeException ex) {
+            return (LocalDateTime) ctxt.handleWeirdStringValue(LocalDateTime.class, p.getValueAsString(),
+                    "expected yyyy-MM-dd or an ISO date-time");
+        }
+    }
+}
@@ -1,29 +1,68 @@
 package com.example.demo.websocket;
 
+import com.example.demo.model.ChatMessage;
 import com.example.demo.model.Notification;
-import com.example.demo.model.GroupMember;
+import com.example.demo.model.OutboxEvent;
 import com.example.demo.repository.NotificationRepository;
-import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.OutboxEventRepository;
+import com.example.demo.service.ResourceRevisions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
 public class NotificationService {
 
     private final NotificationRepository notificationRepo;
-    private final GroupMemberRepository groupMemberRepo;
+    private final OutboxEventRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+    private final NotificationWS ws;
+    private final ApplicationEventPublisher events;
+    private final ResourceRevisions revisions;
 
-    public NotificationService(NotificationRepository notificationRepo, GroupMemberRepository groupMemberRepo) {
+    public NotificationService(NotificationRepository notificationRepo, OutboxEventRepository outboxRepo,
+                               ObjectMapper objectMapper, NotificationWS ws, ApplicationEventPublisher events,
+                               ResourceRevisions revisions) {
         this.notificationRepo = notificationRepo;
-        this.groupMemberRepo = groupMemberRepo;
+        this.outboxRepo = outboxRepo;
+        this.objectMapper = objectMapper;
+        this.ws = ws;
+        this.events = events;
+        this.revisions = revisions;
     }
 
     public void notifyAll(String type, String content) {
+        ws.broadcast(event(type, content));
+    }
+
+    // Records the event in the outbox as part of the caller's transaction. OutboxRelay delivers it
+    // (persisted notifications for every member + socket push) once that transaction has committed.
+    private void notifyGroup(Long groupId, String type, String content) {
+        if (groupId == null) return;
+
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setGroupId(groupId);
+        event.setContent(content);
+        event.setCreatedAt(LocalDateTime.now());
+        outboxRepo.save(event);
+
+        events.publishEvent(new OutboxRelay.EventsRecorded());
+    }
+
+    // STOMP subscribers of /topic/tasks only need a "something changed" nudge
+    public void notifyTasksChanged(Long groupId) {
+        notifyGroup(groupId, OutboxRelay.TASKS_CHANGED, "update");
+    }
+
+    static String event(String type, String content) {
         String escapedContent = content.replace("\"", "\\\"");
-        String msg = "{ \"type\": \"" + type + "\", \"content\": \"" + escapedContent + "\" }";
-        NotificationWS.broadcast(msg);
+        return "{ \"type\": \"" + type + "\", \"content\": \"" + escapedContent + "\" }";
     }
 
     public void notifyTaskNew(String taskTitle) {
@@ -31,9 +70,7 @@ public class NotificationService {
     }
     
     public void notifyTaskNewForGroup(Long groupId, String taskTitle) {
-        String message = "New task added: " + taskTitle;
-        notifyAll("task_new", message);
-        saveNotificationForGroupMembers(groupId, message);
+        notifyGroup(groupId, "task_new", "New task added: " + taskTitle);
     }
 
     public void notifyMemberNew(String groupName) {
@@ -41,9 +78,15 @@ public class NotificationService {
     }
     
     public void notifyMemberNewForGroup(Long groupId, String memberName) {
-        String message = "New member joined: " + memberName;
-        notifyAll("member_new", message);
-        saveNotificationForGroupMembers(groupId, message);
+        notifyGroup(groupId, "member_new", "New member joined: " + memberName);
+    }
+
+    public void notifyDeadlineSoonForGroup(Long groupId, String taskTitle, long hours) {
+        notifyGroup(groupId, "deadline_soon", "Deadline in " + hours + (hours == 1 ? " hour: " : " hours: ") + taskTitle);
+    }
+
+    public void notifyDeadlineOverdueForGroup(Long groupId, String taskTitle) {
+        notifyGroup(groupId, "deadline_overdue", "Deadline passed: " + taskTitle);
     }
 
     public void notifyMaterialNew(String materialTitle) {
@@ -51,9 +94,7 @@ public class NotificationService {
     }
     
     public void notifyMaterialNewForGroup(Long groupId, String materialTitle) {
-        String message = "New material added: " + materialTitle;
-        notifyAll("material_new", message);
-        saveNotificationForGroupMembers(groupId, message);
+        notifyGroup(groupId, "material_new", "New material added: " + materialTitle);
     }
 
     public void notifyTaskUpdated(String taskTitle) {
@@ -64,25 +105,18 @@ public class NotificationService {
         notifyAll("task_deleted", "Task deleted");
     }
 
-    public void notifyChatNew(String userName, String content) {
-        notifyAll("chat_new", userName + ": " + content);
-    }
-    
-    private void saveNotificationForGroupMembers(Long groupId, String message) {
-        if (groupId == null) return;
-        
+    // Pushes the saved message itself so clients can append it instead of refetching the history.
+    // "content" is kept for clients that only show a one-line summary.
+    public void notifyChatNew(ChatMessage message) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "chat_new");
+        event.put("content", message.getUserName() + ": " + message.getContent());
+        event.put("message", message);
+
         try {
-            List<GroupMember> members = groupMemberRepo.findByGroupId(groupId);
-            for (GroupMember member : members) {
-                Notification notification = new Notification();
-                notification.setUserId(member.getUserId());
-                notification.setMessage(message);
-                notification.setCreatedAt(LocalDateTime.now());
-                notification.setRead(false);
-                notificationRepo.save(notification);
-            }
-        } catch (Exception e) {
-            System.err.println("Error saving notifications: " + e.getMessage());
+            ws.sendToGroup(message.getGroupId(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            System.err.println("Error serializing chat message: " + e.getMessage());
         }
     }
     
@@ -96,6 +130,7 @@ public class NotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setRead(false);
             notificationRepo.save(notification);
+            revisions.notificationsChanged(userId);
         } catch (Exception e) {
             System.err.println("Error saving notification: " + e.getMessage());
         }
@@ -1,43 +1,210 @@
 package com.example.demo.websocket;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Routes events to the sessions subscribed to a group or user channel.
+ *
+ * Clients subscribe either in the handshake URL ({@code /ws/notify?userId=5&groupId=7}) or later with a
+ * text frame such as {@code {"action": "subscribe", "groupId": 7}}. Sessions without any subscription
+ * only receive global broadcasts.
+ *
+ * Sending never happens on the caller's thread: every frame goes into the target session's bounded
+ * {@link SessionOutbox} and is written by the dispatch pool, so REST handlers don't wait for peers.
+ */
 public class NotificationWS extends TextWebSocketHandler {
 
-    private static final Set<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    private static final String ATTR_GROUPS = "notify.groups";
+    private static final String ATTR_USERS = "notify.users";
+    private static final String ATTR_OUTBOX = "notify.outbox";
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService dispatcher;
+    private final int queueCapacity;
+    private final SessionOutbox.OverflowPolicy overflowPolicy;
+    private final long sendTimeoutMillis;
+
+    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<WebSocketSession>> groupSessions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<WebSocketSession>> userSessions = new ConcurrentHashMap<>();
+
+    public NotificationWS(ObjectMapper objectMapper, int dispatchThreads, int queueCapacity,
+                          SessionOutbox.OverflowPolicy overflowPolicy, long sendTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ws-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void shutdown() {
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
+        session.getAttributes().put(ATTR_GROUPS, ConcurrentHashMap.<Long>newKeySet());
+        session.getAttributes().put(ATTR_USERS, ConcurrentHashMap.<Long>newKeySet());
+        session.getAttributes().put(ATTR_OUTBOX,
+                new SessionOutbox(session, dispatcher, queueCapacity, overflowPolicy, sendTimeoutMillis));
         sessions.add(session);
+
+        if (session.getUri() != null) {
+            MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+            for (Long groupId : parseIds(params.get("groupId"))) {
+                subscribe(session, groupSessions, ATTR_GROUPS, groupId);
+            }
+            for (Long userId : parseIds(params.get("userId"))) {
+                subscribe(session, userSessions, ATTR_USERS, userId);
+            }
+        }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         sessions.remove(session);
+        Object outbox = session.getAttributes().get(ATTR_OUTBOX);
+        if (outbox != null) {
+            ((SessionOutbox) outbox).discard();
+        }
+        for (Long groupId : subscriptions(session, ATTR_GROUPS)) {
+            unsubscribe(session, groupSessions, ATTR_GROUPS, groupId);
+        }
+        for (Long userId : subscriptions(session, ATTR_USERS)) {
+            unsubscribe(session, userSessions, ATTR_USERS, userId);
+        }
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) {
-    }
+        try {
+            JsonNode frame = objectMapper.readTree(message.getPayload());
+            String action = frame.path("action").asText("");
+            boolean subscribe = "subscribe".equals(action);
+            if (!subscribe && !"unsubscribe".equals(action)) {
+                return;
+            }
 
-    public static void broadcast(String message) {
-        for (WebSocketSession session : sessions) {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
+            if (frame.hasNonNull("groupId")) {
+                Long groupId = frame.get("groupId").asLong();
+                if (subscribe) {
+                    subscribe(session, groupSessions, ATTR_GROUPS, groupId);
+                } else {
+                    unsubscribe(session, groupSessions, ATTR_GROUPS, groupId);
+                }
+            }
+            if (frame.hasNonNull("userId")) {
+                Long userId = frame.get("userId").asLong();
+                if (subscribe) {
+                    subscribe(session, userSessions, ATTR_USERS, userId);
+                } else {
+                    unsubscribe(session, userSessions, ATTR_USERS, userId);
                 }
-            } catch (Exception e) {
             }
+        } catch (Exception e) {
+            System.err.println("Ignoring malformed WS frame: " + e.getMessage());
         }
     }
 
-    public static int getActiveSessionsCount() {
+    public void broadcast(String message) {
+        send(sessions, message);
+    }
+
+    public void sendToGroup(Long groupId, String message) {
+        send(groupSessions.getOrDefault(groupId, Set.of()), message);
+    }
+
+    public void sendToUser(Long userId, String message) {
+        send(userSessions.getOrDefault(userId, Set.of()), message);
+    }
+
+    // Reaches everyone looking at the group plus its members' personal channels, each session at most once.
+    public void sendToGroupAndUsers(Long groupId, Collection<Long> userIds, String message) {
+        Set<WebSocketSession> targets = new LinkedHashSet<>(groupSessions.getOrDefault(groupId, Set.of()));
+        for (Long userId : userIds) {
+            targets.addAll(userSessions.getOrDefault(userId, Set.of()));
+        }
+        send(targets, message);
+    }
+
+    public int getActiveSessionsCount() {
         return sessions.size();
     }
+
+    private void send(Collection<WebSocketSession> targets, String message) {
+        TextMessage frame = new TextMessage(message);
+        for (WebSocketSession session : targets) {
+            Object outbox = session.getAttributes().get(ATTR_OUTBOX);
+            if (outbox != null && session.isOpen()) {
+                ((SessionOutbox) outbox).offer(frame);
+            }
+        }
+    }
+
+    private static void subscribe(WebSocketSession session, Map<Long, Set<WebSocketSession>> channels,
+                                  String attribute, Long id) {
+        channels.compute(id, (key, members) -> {
+            Set<WebSocketSession> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            updated.add(session);
+            return updated;
+        });
+        subscriptions(session, attribute).add(id);
+    }
+
+    private static void unsubscribe(WebSocketSession session, Map<Long, Set<WebSocketSession>> channels,
+                                    String attribute, Long id) {
+        channels.computeIfPresent(id, (key, members) -> {
+            members.remove(session);
+            return members.isEmpty() ? null : members;
+        });
+        subscriptions(session, attribute).remove(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Long> subscriptions(WebSocketSession session, String attribute) {
+        Object ids = session.getAttributes().get(attribute);
+        return ids != null ? (Set<Long>) ids : Set.of();
+    }
+
+    private static List<Long> parseIds(List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(value -> value.matches("\\d+"))
+                .map(Long::valueOf)
+                .toList();
+    }
 }
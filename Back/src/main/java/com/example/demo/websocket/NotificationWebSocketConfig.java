@@ -1,5 +1,7 @@
 package com.example.demo.websocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -10,9 +12,27 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @EnableWebSocket
 public class NotificationWebSocketConfig implements WebSocketConfigurer {
 
-    @Bean
+    private final ObjectMapper objectMapper;
+
+    @Value("${notify.ws.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${notify.ws.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${notify.ws.overflow-policy:disconnect}")
+    private SessionOutbox.OverflowPolicy overflowPolicy;
+
+    @Value("${notify.ws.send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+
+    public NotificationWebSocketConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Bean(destroyMethod = "shutdown")
     public NotificationWS notificationWS() {
-        return new NotificationWS();
+        return new NotificationWS(objectMapper, dispatchThreads, queueCapacity, overflowPolicy, sendTimeoutMillis);
     }
 
     @Override
@@ -0,0 +1,143 @@
+package com.example.demo.websocket;
+
+import com.example.demo.model.GroupMember;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.OutboxEventRepository;
+import com.example.demo.service.ResourceRevisions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains {@code outbox_events} in id order and delivers each event to the {@code notifications} table
+ * and the socket layer.
+ *
+ * Each batch is claimed with SELECT ... FOR UPDATE SKIP LOCKED, so instances sharing the database
+ * drain disjoint batches. Persisting the notifications and deleting the drained events happen in that
+ * same transaction, so a crash never duplicates or loses a notification. Socket pushes are sent after that commit; a push lost to a
+ * crash is acceptable because clients reload from the REST API when they reconnect.
+ */
+@Component
+public class OutboxRelay {
+
+    static final String TASKS_CHANGED = "tasks_changed";
+
+    // Published by NotificationService after recording events; handled once the surrounding transaction commits.
+    public record EventsRecorded() {
+    }
+
+    private final OutboxEventRepository outboxRepo;
+    private final GroupMemberRepository groupMemberRepo;
+    private final NotificationRepository notificationRepo;
+    private final ResourceRevisions revisions;
+    private final NotificationWS ws;
+    private final SimpMessagingTemplate messaging;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor notificationExecutor;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean pending = false;
+
+    public OutboxRelay(OutboxEventRepository outboxRepo, GroupMemberRepository groupMemberRepo,
+                       NotificationRepository notificationRepo, ResourceRevisions revisions, NotificationWS ws,
+                       SimpMessagingTemplate messaging,
+                       PlatformTransactionManager transactionManager,
+                       @Qualifier("notificationExecutor") TaskExecutor notificationExecutor,
+                       @Value("${notify.outbox.batch-size:100}") int batchSize) {
+        this.outboxRepo = outboxRepo;
+        this.groupMemberRepo = groupMemberRepo;
+        this.notificationRepo = notificationRepo;
+        this.revisions = revisions;
+        this.ws = ws;
+        this.messaging = messaging;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // never join a caller's transaction: the relay may be triggered while one is completing
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.notificationExecutor = notificationExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsRecorded(EventsRecorded recorded) {
+        notificationExecutor.execute(this::drain);
+    }
+
+    // Safety net for events whose wake-up was missed (e.g. recorded just before a restart)
+    @Scheduled(fixedDelayString = "${notify.outbox.poll-interval-ms:5000}")
+    // One thread drains at a time; a call that finds it busy only leaves a request behind. The request is
+    // checked again after the drainer lets go, since it may have come in after the drainer's last look.
+    public void drain() {
+        pending = true;
+        while (pending && running.compareAndSet(false, true)) {
+            try {
+                do {
+                    pending = false;
+                    while (drainBatch() == batchSize) {
+                        // keep going while full batches come back
+                    }
+                } while (pending);
+            } catch (Exception e) {
+                System.err.println("Error relaying outbox events: " + e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private int drainBatch() {
+        Map<Long, List<Long>> recipients = new HashMap<>();
+
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxRepo.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+            for (OutboxEvent event : events) {
+                List<Long> memberIds = recipients.computeIfAbsent(event.getGroupId(), this::memberIds);
+                if (!TASKS_CHANGED.equals(event.getType())) {
+                    notificationRepo.insertForUsers(memberIds, event.getContent(), event.getCreatedAt());
+                    revisions.notificationsChanged(memberIds);
+                }
+            }
+            outboxRepo.deleteAllInBatch(events);
+            return events;
+        });
+
+        for (OutboxEvent event : batch) {
+            push(event, recipients.get(event.getGroupId()));
+        }
+        return batch.size();
+    }
+
+    private void push(OutboxEvent event, List<Long> memberIds) {
+        try {
+            if (TASKS_CHANGED.equals(event.getType())) {
+                messaging.convertAndSend("/topic/tasks", event.getContent());
+            } else {
+                ws.sendToGroupAndUsers(event.getGroupId(), memberIds,
+                        NotificationService.event(event.getType(), event.getContent()));
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: failed to push outbox event " + event.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private List<Long> memberIds(Long groupId) {
+        return groupMemberRepo.findByGroupId(groupId).stream()
+                .map(GroupMember::getUserId)
+                .toList();
+    }
+}
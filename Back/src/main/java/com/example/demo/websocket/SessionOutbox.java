@@ -0,0 +1,129 @@
+package com.example.demo.websocket;
+
+import jakarta.websocket.Session;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded outbound queue of a single WebSocket session.
+ *
+ * Producers only enqueue; at most one drain task per session runs on the dispatch executor, which keeps
+ * frames in order and means a slow peer only ever occupies one dispatch thread. The send timeout is handed
+ * to the container as the session's blocking send timeout, so a write to a peer that stops reading fails
+ * after that long, frees its dispatch thread and closes the session.
+ */
+class SessionOutbox {
+
+    // Read by Tomcat for every blocking send of the session (milliseconds); its default is 20 s
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    enum OverflowPolicy {
+        DROP_OLDEST,
+        DISCONNECT
+    }
+
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Deque<TextMessage> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    SessionOutbox(WebSocketSession session, Executor executor, int capacity,
+                  OverflowPolicy overflowPolicy, long sendTimeoutMillis) {
+        this.session = session;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+
+        Session nativeSession = session instanceof NativeWebSocketSession ws
+                ? ws.getNativeSession(Session.class) : null;
+        if (nativeSession != null) {
+            nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeoutMillis);
+        }
+    }
+
+    void offer(TextMessage message) {
+        if (closed) {
+            return;
+        }
+
+        synchronized (queue) {
+            if (queue.size() >= capacity) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    close("outbound queue full (" + capacity + " messages)");
+                    return;
+                }
+                queue.pollFirst();
+            }
+            queue.addLast(message);
+        }
+
+        scheduleDrain();
+    }
+
+    void discard() {
+        closed = true;
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            System.err.println("WS dispatch rejected for session " + session.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            TextMessage next;
+            synchronized (queue) {
+                next = queue.pollFirst();
+                if (next == null) {
+                    // release under the lock so a concurrent offer either sees draining=false or is picked up here
+                    draining.set(false);
+                    return;
+                }
+            }
+
+            if (closed || !session.isOpen()) {
+                discard();
+                continue;
+            }
+
+            try {
+                // fails once the send has been blocked for the send timeout
+                session.sendMessage(next);
+            } catch (Exception e) {
+                close("send failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void close(String reason) {
+        discard();
+        System.err.println("Closing WS session " + session.getId() + ": " + reason);
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception e) {
+            System.err.println("Error closing WS session " + session.getId() + ": " + e.getMessage());
+        }
+    }
+}
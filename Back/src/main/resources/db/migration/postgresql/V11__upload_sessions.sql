@@ -0,0 +1,21 @@
+-- Resumable chunked uploads: a session per file being uploaded and the chunks already written to its
+-- part file (uploads/tmp/<id>.part). Both are removed when the upload completes or expires.
+
+CREATE TABLE upload_sessions (
+    id varchar(36) NOT NULL,
+    group_id bigint,
+    uploaded_by bigint,
+    title varchar(255),
+    file_size bigint NOT NULL,
+    chunk_size integer NOT NULL,
+    created_at timestamp NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_upload_sessions_created_at ON upload_sessions (created_at);
+
+CREATE TABLE upload_chunks (
+    upload_id varchar(36) NOT NULL,
+    chunk_index integer NOT NULL,
+    PRIMARY KEY (upload_id, chunk_index)
+);
@@ -0,0 +1,7 @@
+-- Indexes for the paged task listing (GET /tasks/group/{groupId}/summaries): a status column of the board
+-- newest first or by deadline, read as one index range from the cursor on. (group_id, status, id) also
+-- serves the counts per status that used (group_id, status).
+
+CREATE INDEX idx_tasks_group_status_id ON tasks (group_id, status, id);
+CREATE INDEX idx_tasks_group_status_deadline ON tasks (group_id, status, deadline, id);
+DROP INDEX idx_tasks_group_status;
@@ -0,0 +1,8 @@
+-- Revisions behind the ETags of the read endpoints, one row per resource key ("groups", "group:<id>",
+-- "notifications:<userId>"). A key without a row is at revision 0.
+
+CREATE TABLE resource_revisions (
+    resource_key varchar(64) NOT NULL,
+    revision bigint NOT NULL,
+    PRIMARY KEY (resource_key)
+);
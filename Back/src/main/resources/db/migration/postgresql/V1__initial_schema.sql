@@ -0,0 +1,58 @@
+-- Same schema as db/migration/sqlite, written for PostgreSQL (also run by the tests on H2 in PostgreSQL mode).
+
+CREATE TABLE users (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email varchar(255) NOT NULL UNIQUE,
+    name varchar(255) NOT NULL,
+    password varchar(255) NOT NULL
+);
+
+CREATE TABLE groups (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255),
+    created_by bigint
+);
+
+CREATE TABLE group_members (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id bigint,
+    user_id bigint
+);
+
+CREATE TABLE tasks (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id bigint,
+    created_by bigint,
+    title varchar(255),
+    description varchar(255),
+    status varchar(255),
+    created_at varchar(255),
+    deadline varchar(255)
+);
+
+CREATE TABLE materials (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id bigint,
+    uploaded_by bigint,
+    title varchar(255),
+    url varchar(255),
+    file_path varchar(255),
+    created_at varchar(255)
+);
+
+CREATE TABLE chat_messages (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id bigint,
+    user_id bigint,
+    user_name varchar(255),
+    content varchar(500),
+    timestamp timestamp
+);
+
+CREATE TABLE notifications (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id bigint,
+    message varchar(255),
+    created_at timestamp,
+    is_read boolean NOT NULL DEFAULT false
+);
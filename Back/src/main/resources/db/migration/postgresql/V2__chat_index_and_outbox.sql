@@ -0,0 +1,9 @@
+CREATE INDEX idx_chat_messages_group_ts_id ON chat_messages (group_id, timestamp, id);
+
+CREATE TABLE outbox_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type varchar(255),
+    group_id bigint,
+    content varchar(2000),
+    created_at timestamp
+);
@@ -0,0 +1,28 @@
+-- Completion time of DONE tasks and an append-only log of task status transitions (TaskEvent).
+-- group_daily_completions is keyed by the completion day from here on.
+
+ALTER TABLE tasks ADD COLUMN completed_at timestamp;
+
+CREATE TABLE task_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id bigint NOT NULL,
+    group_id bigint,
+    from_status varchar(255),
+    to_status varchar(255),
+    occurred_at timestamp NOT NULL
+);
+
+CREATE INDEX idx_task_events_group_occurred ON task_events (group_id, occurred_at);
+
+-- Existing tasks have no recorded completion time; use created_at, the approximation the counters used so far.
+UPDATE tasks
+SET completed_at = CAST(created_at AS timestamp)
+WHERE status = 'DONE' AND created_at IS NOT NULL;
+
+INSERT INTO task_events (task_id, group_id, from_status, to_status, occurred_at)
+SELECT id, group_id, NULL, 'OPEN', CAST(created_at AS timestamp)
+FROM tasks WHERE created_at IS NOT NULL;
+
+INSERT INTO task_events (task_id, group_id, from_status, to_status, occurred_at)
+SELECT id, group_id, 'OPEN', 'DONE', completed_at
+FROM tasks WHERE completed_at IS NOT NULL;
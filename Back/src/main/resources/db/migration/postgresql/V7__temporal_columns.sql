@@ -0,0 +1,15 @@
+-- tasks.created_at, tasks.deadline and materials.created_at become timestamps.
+-- The clients sent deadlines as a date (yyyy-MM-dd), which now means the end of that day; values that
+-- are not a date or date-time (never accepted by the upcoming-deadline check either) become NULL.
+
+ALTER TABLE tasks ALTER COLUMN created_at TYPE timestamp
+    USING CASE WHEN created_at ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}T[0-9]{2}:[0-9]{2}' THEN CAST(created_at AS timestamp) END;
+
+ALTER TABLE tasks ALTER COLUMN deadline TYPE timestamp
+    USING CASE WHEN deadline ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN CAST(deadline || 'T23:59' AS timestamp)
+               WHEN deadline ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}T[0-9]{2}:[0-9]{2}' THEN CAST(deadline AS timestamp) END;
+
+ALTER TABLE materials ALTER COLUMN created_at TYPE timestamp
+    USING CASE WHEN created_at ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}T[0-9]{2}:[0-9]{2}' THEN CAST(created_at AS timestamp) END;
+
+CREATE INDEX idx_tasks_group_deadline ON tasks (group_id, deadline);
@@ -0,0 +1,13 @@
+-- Reminders already sent by DeadlineReminderService: one row per task, reminder kind and deadline,
+-- so each reminder goes out once even across restarts; a changed deadline gets its own reminders.
+
+CREATE TABLE deadline_reminders (
+    task_id bigint NOT NULL,
+    kind varchar(16) NOT NULL,
+    deadline timestamp NOT NULL,
+    sent_at timestamp NOT NULL,
+    PRIMARY KEY (task_id, kind, deadline)
+);
+
+-- Loading the reminders due in the next hours is a deadline range over all groups
+CREATE INDEX idx_tasks_deadline ON tasks (deadline);
@@ -0,0 +1,5 @@
+-- SHA-256 (hex) and size in bytes of uploaded files, computed while the upload is written to disk.
+-- Left NULL for links and for files uploaded before this version.
+
+ALTER TABLE materials ADD COLUMN sha256 varchar(64);
+ALTER TABLE materials ADD COLUMN file_size bigint;
@@ -0,0 +1,4 @@
+-- Uploaded files are stored once per content (uploads/ab/cd/<sha256>) and shared by every material with
+-- that hash; this index serves the reference count on delete and the lookup of an already stored file.
+
+CREATE INDEX idx_materials_sha256 ON materials (sha256);
@@ -0,0 +1,13 @@
+-- Every write to a task, chat message or material, recorded in the writer's transaction. Each instance
+-- re-indexes the rows changed since its search index was last synced, so the index catches up after a
+-- crash and sees the writes of other instances. Rows older than a day are pruned.
+
+CREATE TABLE search_changes (
+    id integer,
+    entity_type varchar(16) NOT NULL,
+    entity_id bigint NOT NULL,
+    changed_at timestamp NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_search_changes_changed_at ON search_changes (changed_at);
@@ -0,0 +1,66 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases already have these tables and are baselined at this version.
+
+CREATE TABLE users (
+    id integer,
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE groups (
+    id integer,
+    name varchar(255),
+    created_by bigint,
+    primary key (id)
+);
+
+CREATE TABLE group_members (
+    id integer,
+    group_id bigint,
+    user_id bigint,
+    primary key (id)
+);
+
+CREATE TABLE tasks (
+    id integer,
+    group_id bigint,
+    created_by bigint,
+    title varchar(255),
+    description varchar(255),
+    status varchar(255),
+    created_at varchar(255),
+    deadline varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE materials (
+    id integer,
+    group_id bigint,
+    uploaded_by bigint,
+    title varchar(255),
+    url varchar(255),
+    file_path varchar(255),
+    created_at varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE chat_messages (
+    id integer,
+    group_id bigint,
+    user_id bigint,
+    user_name varchar(255),
+    content varchar(500),
+    timestamp timestamp,
+    primary key (id)
+);
+
+CREATE TABLE notifications (
+    id integer,
+    user_id bigint,
+    message varchar(255),
+    created_at timestamp,
+    is_read boolean,
+    primary key (id)
+);
@@ -0,0 +1,12 @@
+-- Databases that ran with ddl-auto=update may already have these objects.
+
+CREATE INDEX IF NOT EXISTS idx_chat_messages_group_ts_id ON chat_messages (group_id, timestamp, id);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id integer,
+    type varchar(255),
+    group_id bigint,
+    content varchar(2000),
+    created_at timestamp,
+    primary key (id)
+);
@@ -0,0 +1,11 @@
+CREATE INDEX idx_tasks_group_id ON tasks (group_id);
+CREATE INDEX idx_tasks_status ON tasks (status);
+CREATE INDEX idx_tasks_created_at ON tasks (created_at);
+
+CREATE INDEX idx_group_members_group_id ON group_members (group_id);
+CREATE INDEX idx_group_members_user_id ON group_members (user_id);
+
+CREATE INDEX idx_materials_group_id ON materials (group_id);
+
+CREATE INDEX idx_notifications_user_id ON notifications (user_id);
+CREATE INDEX idx_notifications_created_at ON notifications (created_at);
@@ -0,0 +1,16 @@
+-- Composite indexes matching the repository finders. Single-column indexes that became a prefix of
+-- one of these are dropped.
+
+CREATE INDEX idx_tasks_group_status ON tasks (group_id, status);
+CREATE INDEX idx_tasks_group_creator_status ON tasks (group_id, created_by, status);
+DROP INDEX idx_tasks_group_id;
+
+CREATE INDEX idx_notifications_user_read_created ON notifications (user_id, is_read, created_at);
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at);
+DROP INDEX idx_notifications_user_id;
+
+-- A user can be in a group only once; keep the oldest row of any duplicates before enforcing it.
+DELETE FROM group_members
+WHERE id NOT IN (SELECT MIN(id) FROM group_members GROUP BY group_id, user_id);
+CREATE UNIQUE INDEX uk_group_members_group_user ON group_members (group_id, user_id);
+DROP INDEX idx_group_members_group_id;
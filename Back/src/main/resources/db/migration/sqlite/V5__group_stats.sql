@@ -0,0 +1,44 @@
+-- Per-group task counters maintained by GroupStatsService on every task write and rebuilt
+-- periodically from tasks (GroupStatsRepository.rebuild uses the same statements as below).
+
+CREATE TABLE group_stats (
+    group_id bigint NOT NULL PRIMARY KEY,
+    total_tasks bigint NOT NULL DEFAULT 0,
+    tasks_open bigint NOT NULL DEFAULT 0,
+    tasks_in_progress bigint NOT NULL DEFAULT 0,
+    tasks_done bigint NOT NULL DEFAULT 0
+);
+
+CREATE TABLE group_member_stats (
+    group_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    tasks_created bigint NOT NULL DEFAULT 0,
+    tasks_completed bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (group_id, user_id)
+);
+
+-- DONE tasks per group and day (the date part of tasks.created_at)
+CREATE TABLE group_daily_completions (
+    group_id bigint NOT NULL,
+    completed_on varchar(10) NOT NULL,
+    tasks_completed bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (group_id, completed_on)
+);
+
+INSERT INTO group_stats (group_id, total_tasks, tasks_open, tasks_in_progress, tasks_done)
+SELECT group_id, COUNT(*),
+       SUM(CASE WHEN status = 'OPEN' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'IN_PROGRESS' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END)
+FROM tasks WHERE group_id IS NOT NULL
+GROUP BY group_id;
+
+INSERT INTO group_member_stats (group_id, user_id, tasks_created, tasks_completed)
+SELECT group_id, created_by, COUNT(*), SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END)
+FROM tasks WHERE group_id IS NOT NULL AND created_by IS NOT NULL
+GROUP BY group_id, created_by;
+
+INSERT INTO group_daily_completions (group_id, completed_on, tasks_completed)
+SELECT group_id, SUBSTR(created_at, 1, 10), COUNT(*)
+FROM tasks WHERE group_id IS NOT NULL AND status = 'DONE' AND created_at IS NOT NULL
+GROUP BY group_id, SUBSTR(created_at, 1, 10);
@@ -0,0 +1,30 @@
+-- Completion time of DONE tasks and an append-only log of task status transitions (TaskEvent).
+-- group_daily_completions is keyed by the completion day from here on.
+
+ALTER TABLE tasks ADD COLUMN completed_at timestamp;
+
+CREATE TABLE task_events (
+    id integer,
+    task_id bigint NOT NULL,
+    group_id bigint,
+    from_status varchar(255),
+    to_status varchar(255),
+    occurred_at timestamp NOT NULL,
+    primary key (id)
+);
+
+CREATE INDEX idx_task_events_group_occurred ON task_events (group_id, occurred_at);
+
+-- Existing tasks have no recorded completion time; use created_at, the approximation the counters used so far.
+-- Timestamps are stored as epoch milliseconds (as sqlite-jdbc writes LocalDateTime), created_at is local ISO time.
+UPDATE tasks
+SET completed_at = CAST(ROUND((julianday(created_at, 'utc') - 2440587.5) * 86400000) AS INTEGER)
+WHERE status = 'DONE' AND created_at IS NOT NULL;
+
+INSERT INTO task_events (task_id, group_id, from_status, to_status, occurred_at)
+SELECT id, group_id, NULL, 'OPEN', CAST(ROUND((julianday(created_at, 'utc') - 2440587.5) * 86400000) AS INTEGER)
+FROM tasks WHERE created_at IS NOT NULL;
+
+INSERT INTO task_events (task_id, group_id, from_status, to_status, occurred_at)
+SELECT id, group_id, 'OPEN', 'DONE', completed_at
+FROM tasks WHERE completed_at IS NOT NULL;
@@ -0,0 +1,57 @@
+-- tasks.created_at, tasks.deadline and materials.created_at become timestamps, stored as epoch milliseconds
+-- like every other timestamp written through sqlite-jdbc. The old values are local ISO date-times.
+-- The clients sent deadlines as a date (yyyy-MM-dd), which now means the end of that day; values that
+-- are not a date or date-time (never accepted by the upcoming-deadline check either) become NULL.
+--
+-- SQLite cannot change a column type, so both tables are rebuilt; the existing rows are copied over.
+
+CREATE TABLE tasks_new (
+    id integer,
+    group_id bigint,
+    created_by bigint,
+    title varchar(255),
+    description varchar(255),
+    status varchar(255),
+    created_at timestamp,
+    deadline timestamp,
+    completed_at timestamp,
+    primary key (id)
+);
+
+INSERT INTO tasks_new (id, group_id, created_by, title, description, status, created_at, deadline, completed_at)
+SELECT id, group_id, created_by, title, description, status,
+       CAST(ROUND((julianday(created_at, 'utc') - 2440587.5) * 86400000) AS INTEGER),
+       CAST(ROUND((julianday(CASE WHEN length(deadline) = 10 THEN deadline || 'T23:59' ELSE deadline END, 'utc')
+                   - 2440587.5) * 86400000) AS INTEGER),
+       completed_at
+FROM tasks;
+
+DROP TABLE tasks;
+ALTER TABLE tasks_new RENAME TO tasks;
+
+CREATE INDEX idx_tasks_status ON tasks (status);
+CREATE INDEX idx_tasks_created_at ON tasks (created_at);
+CREATE INDEX idx_tasks_group_status ON tasks (group_id, status);
+CREATE INDEX idx_tasks_group_creator_status ON tasks (group_id, created_by, status);
+CREATE INDEX idx_tasks_group_deadline ON tasks (group_id, deadline);
+
+CREATE TABLE materials_new (
+    id integer,
+    group_id bigint,
+    uploaded_by bigint,
+    title varchar(255),
+    url varchar(255),
+    file_path varchar(255),
+    created_at timestamp,
+    primary key (id)
+);
+
+INSERT INTO materials_new (id, group_id, uploaded_by, title, url, file_path, created_at)
+SELECT id, group_id, uploaded_by, title, url, file_path,
+       CAST(ROUND((julianday(created_at, 'utc') - 2440587.5) * 86400000) AS INTEGER)
+FROM materials;
+
+DROP TABLE materials;
+ALTER TABLE materials_new RENAME TO materials;
+
+CREATE INDEX idx_materials_group_id ON materials (group_id);
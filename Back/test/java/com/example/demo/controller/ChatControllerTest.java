@@ -0,0 +1,110 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.ChatMessage;
+import com.example.demo.model.Group;
+import com.example.demo.repository.ChatMessageRepository;
+import com.example.demo.repository.GroupRepository;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ChatControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ChatMessageRepository chatRepo;
+
+    @Autowired
+    private GroupRepository groupRepo;
+
+    private Long groupId;
+    private Long a, b, c, d, e;
+
+    // In chronological order the messages are c, a, b, e, d: a, b and e share a timestamp and are
+    // ordered by id, and c was sent after them but carries an earlier timestamp.
+    @BeforeEach
+    void createMessages() {
+        groupId = createGroup();
+        LocalDateTime t1 = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        a = send(groupId, "a", t1);
+        b = send(groupId, "b", t1);
+        c = send(groupId, "c", t1.minusMinutes(1));
+        d = send(groupId, "d", t1.plusMinutes(1));
+        e = send(groupId, "e", t1);
+    }
+
+    @Test
+    void latestPageIsTheNewestMessagesInChronologicalOrder() throws Exception {
+        page("").andExpect(jsonPath("$[*].content").value(Matchers.contains("c", "a", "b", "e", "d")));
+        page("?limit=3").andExpect(jsonPath("$[*].content").value(Matchers.contains("b", "e", "d")));
+    }
+
+    @Test
+    void beforeWalksBackAndBreaksTimestampTiesById() throws Exception {
+        page("?before=" + b).andExpect(jsonPath("$[*].content").value(Matchers.contains("c", "a")));
+        page("?before=" + e + "&limit=1").andExpect(jsonPath("$[*].content").value(Matchers.contains("b")));
+        page("?before=" + d + "&limit=2").andExpect(jsonPath("$[*].content").value(Matchers.contains("b", "e")));
+        page("?before=" + c).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void afterWalksForwardAndBreaksTimestampTiesById() throws Exception {
+        page("?after=" + a + "&limit=2").andExpect(jsonPath("$[*].content").value(Matchers.contains("b", "e")));
+        page("?after=" + c).andExpect(jsonPath("$[*].content").value(Matchers.contains("a", "b", "e", "d")));
+        page("?after=" + e).andExpect(jsonPath("$[*].content").value(Matchers.contains("d")));
+        page("?after=" + d).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownCursorsAndConflictingParameters() throws Exception {
+        Long otherGroupMessage = send(createGroup(), "elsewhere", LocalDateTime.now());
+
+        mvc.perform(get("/chat/" + groupId + "?before=" + otherGroupMessage))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("CURSOR_NOT_FOUND"));
+        mvc.perform(get("/chat/" + groupId + "?after=" + Long.MAX_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("CURSOR_NOT_FOUND"));
+        mvc.perform(get("/chat/" + groupId + "?before=" + b + "&after=" + a))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("BEFORE_AND_AFTER_EXCLUSIVE"));
+    }
+
+    private ResultActions page(String query) throws Exception {
+        return mvc.perform(get("/chat/" + groupId + query)).andExpect(status().isOk());
+    }
+
+    private Long createGroup() {
+        Group group = new Group();
+        group.setName("chat");
+        return groupRepo.save(group).getId();
+    }
+
+    private Long send(Long groupId, String content, LocalDateTime timestamp) {
+        ChatMessage message = new ChatMessage();
+        message.setGroupId(groupId);
+        message.setUserName("tester");
+        message.setContent(content);
+        message.setTimestamp(timestamp);
+        return chatRepo.save(message).getId();
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.StudyMaterial;
+import com.example.demo.repository.StudyMaterialRepository;
+import com.example.demo.service.PreviewService;
+import com.jayway.jsonpath.JsonPath;
+import org.hamcrest.Matchers;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "materials.upload.chunk-size=4096")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MaterialControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private StudyMaterialRepository materialRepo;
+
+    private Path file;
+    private byte[] content;
+    private Long id;
+
+    @BeforeEach
+    void createFile() throws Exception {
+        content = new byte[10_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.createTempFile("material", ".bin");
+        Files.write(file, content);
+
+        StudyMaterial material = new StudyMaterial();
+        material.setTitle("download");
+        material.setFilePath(file.toString());
+        id = materialRepo.save(material).getId();
+    }
+
+    @AfterEach
+    void deleteFile() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void downloadsTheWholeFileWithValidators() throws Exception {
+        MvcResult result = mvc.perform(get("/materials/download/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10000"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        assertArrayEquals(content, result.getResponse().getContentAsByteArray());
+
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get("/materials/download/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/materials/download/" + id)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void servesByteRangesWhileIfRangeMatches() throws Exception {
+        String etag = mvc.perform(get("/materials/download/" + id)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult partial = mvc.perform(get("/materials/download/" + id)
+                        .header(HttpHeaders.RANGE, "bytes=9000-")
+                        .header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 9000-9999/10000"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "1000"))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(content, 9000, 10_000), partial.getResponse().getContentAsByteArray());
+
+        // the file changed since the client's copy: send all of it
+        MvcResult full = mvc.perform(get("/materials/download/" + id)
+                        .header(HttpHeaders.RANGE, "bytes=9000-")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(content.length, full.getResponse().getContentAsByteArray().length);
+
+        mvc.perform(get("/materials/download/" + id).header(HttpHeaders.RANGE, "bytes=20000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10000"));
+    }
+
+    @Test
+    void uploadIsWrittenToDiskWithItsChecksum() throws Exception {
+        StudyMaterial saved = upload("notes", content);
+        Path stored = Paths.get(saved.getFilePath());
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        assertArrayEquals(content, Files.readAllBytes(stored));
+        assertEquals(sha256, saved.getSha256());
+        assertEquals(content.length, saved.getFileSize());
+        assertEquals(Paths.get("uploads", sha256.substring(0, 2), sha256.substring(2, 4), sha256), stored);
+
+        mvc.perform(delete("/materials/" + saved.getId())).andExpect(status().isOk());
+        assertFalse(Files.exists(stored));
+    }
+
+    @Test
+    void identicalFilesAreStoredOnceUntilTheLastReferenceIsDeleted() throws Exception {
+        byte[] shared = "the same lecture notes, shared in several groups".getBytes(StandardCharsets.UTF_8);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(shared));
+
+        mvc.perform(post("/materials/by-hash").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sha256\": \"" + sha256 + "\", \"title\": \"copy\", \"groupId\": \"2\"}"))
+                .andExpect(status().isNotFound());
+
+        StudyMaterial first = upload("first", shared);
+        StudyMaterial second = upload("second", shared);
+        mvc.perform(post("/materials/by-hash").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sha256\": \"" + sha256 + "\", \"title\": \"copy\", \"groupId\": \"2\"}"))
+                .andExpect(status().isOk());
+        StudyMaterial third = materialRepo.findAll().stream()
+                .filter(m -> "copy".equals(m.getTitle()))
+                .findFirst().orElseThrow();
+
+        Path stored = Paths.get(first.getFilePath());
+        assertEquals(stored, Paths.get(second.getFilePath()));
+        assertEquals(stored, Paths.get(third.getFilePath()));
+        assertEquals(2L, third.getGroupId());
+        assertEquals(shared.length, third.getFileSize());
+        assertEquals(3, materialRepo.countBySha256AndFilePath(sha256, first.getFilePath()));
+
+        mvc.perform(delete("/materials/" + first.getId())).andExpect(status().isOk());
+        mvc.perform(delete("/materials/" + third.getId())).andExpect(status().isOk());
+        assertArrayEquals(shared, Files.readAllBytes(stored));
+
+        mvc.perform(delete("/materials/" + second.getId())).andExpect(status().isOk());
+        assertFalse(Files.exists(stored));
+    }
+
+    @Test
+    void chunksAreAssembledInAnyOrderAndTheUploadResumes() throws Exception {
+        String uploadId = JsonPath.read(mvc.perform(post("/materials/uploads").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"recording\", \"groupId\": \"3\", \"size\": \"10000\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chunkCount").value(3))
+                .andReturn().getResponse().getContentAsString(), "$.uploadId");
+
+        putChunk(uploadId, 2, Arrays.copyOfRange(content, 8192, 10_000), sha256(Arrays.copyOfRange(content, 8192, 10_000)))
+                .andExpect(status().isOk());
+        putChunk(uploadId, 0, Arrays.copyOfRange(content, 0, 4096), sha256(Arrays.copyOfRange(content, 0, 4096)))
+                .andExpect(status().isOk());
+        // a failed re-send of a received chunk overwrote it, so it has to be sent again
+        putChunk(uploadId, 0, new byte[4096], sha256(Arrays.copyOfRange(content, 0, 4096)))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/materials/uploads/" + uploadId))
+                .andExpect(jsonPath("$.received").value(Matchers.contains(2)));
+        putChunk(uploadId, 0, Arrays.copyOfRange(content, 0, 4096), sha256(Arrays.copyOfRange(content, 0, 4096)))
+                .andExpect(status().isOk());
+        // corrupted on the way: not recorded, so it is sent again
+        putChunk(uploadId, 1, Arrays.copyOfRange(content, 4096, 8192), sha256(new byte[4096]))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/materials/uploads/" + uploadId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(Matchers.contains(0, 2)))
+                // the client resumes only an upload to the same group and title
+                .andExpect(jsonPath("$.groupId").value(3))
+                .andExpect(jsonPath("$.title").value("recording"));
+        mvc.perform(post("/materials/uploads/" + uploadId + "/complete"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("CHECKSUM_REQUIRED"));
+        mvc.perform(post("/materials/uploads/" + uploadId + "/complete").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sha256\": \"" + sha256(content) + "\"}"))
+                .andExpect(status().isConflict());
+
+        putChunk(uploadId, 1, Arrays.copyOfRange(content, 4096, 8192), sha256(Arrays.copyOfRange(content, 4096, 8192)))
+                .andExpect(status().isOk());
+        mvc.perform(post("/materials/uploads/" + uploadId + "/complete").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sha256\": \"" + sha256(content) + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fileSize").value(10_000))
+                .andExpect(jsonPath("$.groupId").value(3));
+
+        StudyMaterial saved = materialRepo.findAll().stream()
+                .filter(m -> "recording".equals(m.getTitle()))
+                .findFirst().orElseThrow();
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(saved.getFilePath())));
+        mvc.perform(get("/materials/uploads/" + uploadId)).andExpect(status().isNotFound());
+
+        mvc.perform(delete("/materials/" + saved.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void uploadedPdfGetsAThumbnailAndTextPreview() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            try (PDPageContentStream text = new PDPageContentStream(document, page)) {
+                text.beginText();
+                text.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 18);
+                text.newLineAtOffset(72, 700);
+                text.showText("Linear algebra, lecture 3");
+                text.endText();
+            }
+            document.save(pdf);
+        }
+        StudyMaterial saved = upload("lecture", pdf.toByteArray());
+
+        MvcResult thumbnail = awaitPreview("/materials/" + saved.getId() + "/thumbnail");
+        assertEquals("image/png", thumbnail.getResponse().getContentType());
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail.getResponse().getContentAsByteArray()));
+        assertEquals(240, image.getWidth());
+
+        MvcResult preview = awaitPreview("/materials/" + saved.getId() + "/preview");
+        assertEquals("Linear algebra, lecture 3", preview.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        mvc.perform(get("/materials/" + saved.getId() + "/preview")
+                        .header(HttpHeaders.IF_NONE_MATCH, preview.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+
+        Path stored = Paths.get(saved.getFilePath());
+        mvc.perform(delete("/materials/" + saved.getId())).andExpect(status().isOk());
+        assertFalse(Files.exists(PreviewService.thumbnailFor(stored)));
+        assertFalse(Files.exists(PreviewService.snippetFor(stored)));
+    }
+
+    @Test
+    void binaryFilesHaveNoPreview() throws Exception {
+        // the test file is neither a document, an image nor text
+        awaitPreview("/materials/" + id + "/preview", 404, "NO_PREVIEW");
+        mvc.perform(get("/materials/" + id + "/thumbnail"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("NO_PREVIEW"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".nopreview"));
+    }
+
+    private MvcResult awaitPreview(String path) throws Exception {
+        return awaitPreview(path, 200, null);
+    }
+
+    // Previews are made in the background; polls until the expected answer arrives
+    private MvcResult awaitPreview(String path, int expectedStatus, String expectedBody) throws Exception {
+        MvcResult result = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            result = mvc.perform(get(path)).andReturn();
+            if (result.getResponse().getStatus() == expectedStatus
+                    && (expectedBody == null || expectedBody.equals(result.getResponse().getContentAsString()))) {
+                return result;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("no preview at " + path + ": " + result.getResponse().getContentAsString());
+    }
+
+    private ResultActions putChunk(String uploadId, int index, byte[] bytes, String sha256) throws Exception {
+        return mvc.perform(put("/materials/uploads/" + uploadId + "/chunks/" + index)
+                .param("offset", String.valueOf(index * 4096L))
+                .header("X-Chunk-Sha256", sha256)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(bytes));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private StudyMaterial upload(String title, byte[] bytes) throws Exception {
+        mvc.perform(multipart("/materials/upload")
+                        .file(new MockMultipartFile("file", title + ".bin", "application/octet-stream", bytes))
+                        .param("title", title))
+                .andExpect(status().isOk());
+
+        return materialRepo.findAll().stream()
+                .filter(m -> title.equals(m.getTitle()))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SearchHit;
+import com.example.demo.dto.SearchResults;
+import com.example.demo.model.ChatMessage;
+import com.example.demo.model.Group;
+import com.example.demo.model.StudyMaterial;
+import com.example.demo.model.Task;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.service.SearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SearchControllerTest {
+
+    @Autowired
+    private SearchController controller;
+
+    @Autowired
+    private TaskController taskController;
+
+    @Autowired
+    private ChatController chatController;
+
+    @Autowired
+    private MaterialController materialController;
+
+    @Autowired
+    private GroupRepository groupRepo;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findsTasksMessagesAndMaterialsOfTheGroupBestMatchFirst() {
+        Long groupId = createGroup();
+        Long otherGroupId = createGroup();
+
+        Long taskId = createTask(groupId, "Eigenvalues homework", "Exercises 3.1 to 3.4 on eigenvalues");
+        createTask(groupId, "Lab report", "Measure the pendulum");
+        createTask(otherGroupId, "Eigenvalues", "not in this group");
+        Long messageId = sendMessage(groupId, "Who has the eigenvalues notes from Monday?");
+
+        StudyMaterial link = new StudyMaterial();
+        link.setGroupId(groupId);
+        link.setTitle("Eigenvalues lecture notes");
+        link.setUrl("https://example.com/linear-algebra");
+        Long materialId = ((StudyMaterial) materialController.uploadLink(link).getBody()).getId();
+
+        SearchResults results = search(groupId, "eigenvalues", 0, 20);
+        assertEquals(3, results.total);
+        // a title match outranks a match in the text
+        assertEquals("task", results.hits.get(0).type);
+        assertEquals(taskId, results.hits.get(0).id);
+        assertEquals(List.of("chat:" + messageId, "material:" + materialId, "task:" + taskId),
+                results.hits.stream().map(h -> h.type + ":" + h.id).sorted().toList());
+
+        // every word must match
+        assertEquals(1, search(groupId, "eigenvalues homework", 0, 20).total);
+        assertEquals(1, search(groupId, "pend*", 0, 20).total);
+        assertEquals(1, search(groupId, "eigenvalues -notes", 0, 20).total);
+
+        // pages
+        SearchResults second = search(groupId, "eigenvalues", 1, 2);
+        assertEquals(3, second.total);
+        assertEquals(1, second.hits.size());
+
+        taskController.updateTask(taskId, task("Matrix homework", "Exercises 3.1 to 3.4"));
+        assertTrue(search(groupId, "eigenvalues", 0, 20).hits.stream().noneMatch(h -> h.id.equals(taskId)
+                && h.type.equals("task")));
+        assertEquals(1, search(groupId, "matrix", 0, 20).total);
+
+        taskController.deleteTask(taskId);
+        assertEquals(0, search(groupId, "matrix", 0, 20).total);
+    }
+
+    @Test
+    void rebuildIndexesWhatIsInTheDatabase() throws Exception {
+        Long groupId = createGroup();
+        createTask(groupId, "Thermodynamics quiz", "Chapter 5");
+
+        searchIndex.rebuild();
+
+        SearchHit hit = search(groupId, "thermodynamics", 0, 20).hits.get(0);
+        assertEquals("Thermodynamics quiz", hit.title);
+        assertEquals("Chapter 5", hit.snippet);
+    }
+
+    @Test
+    void syncPicksUpChangesThatNeverReachedThisIndex() {
+        Long groupId = createGroup();
+        Long editedId = createTask(groupId, "Optics worksheet", "Lenses");
+        Long deletedId = createTask(groupId, "Acoustics worksheet", "Resonance");
+
+        // written by another instance (or lost in a crash): only the database and the recorded changes have them
+        jdbcTemplate.update("UPDATE tasks SET title = 'Spectroscopy worksheet' WHERE id = ?", editedId);
+        jdbcTemplate.update("DELETE FROM tasks WHERE id = ?", deletedId);
+        for (Long id : List.of(editedId, deletedId)) {
+            jdbcTemplate.update("INSERT INTO search_changes (entity_type, entity_id, changed_at) VALUES ('task', ?, ?)",
+                    id, Timestamp.valueOf(LocalDateTime.now()));
+        }
+        assertEquals(2, search(groupId, "worksheet", 0, 20).total);
+
+        searchIndex.sync();
+
+        assertEquals(0, search(groupId, "optics", 0, 20).total);
+        assertEquals(1, search(groupId, "spectroscopy", 0, 20).total);
+        assertEquals(0, search(groupId, "acoustics", 0, 20).total);
+    }
+
+    @Test
+    void rejectsMissingQueriesAndPagesBeyondTheLimit() {
+        assertEquals(400, controller.search(1L, " ", 0, 20).getStatusCode().value());
+        assertEquals(400, controller.search(1L, "notes", 0, 500).getStatusCode().value());
+        assertEquals(400, controller.search(1L, "notes", 50, 20).getStatusCode().value());
+        assertEquals(0, ((SearchResults) controller.search(1L, "!!", 0, 20).getBody()).total);
+    }
+
+    private SearchResults search(Long groupId, String q, int page, int size) {
+        return (SearchResults) controller.search(groupId, q, page, size).getBody();
+    }
+
+    private Long createGroup() {
+        Group group = new Group();
+        group.setName("search");
+        return groupRepo.save(group).getId();
+    }
+
+    private Long createTask(Long groupId, String title, String description) {
+        Task task = task(title, description);
+        task.setGroupId(groupId);
+        return ((Task) taskController.create(task, null).getBody()).getId();
+    }
+
+    private static Task task(String title, String description) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription(description);
+        task.setStatus("OPEN");
+        return task;
+    }
+
+    private Long sendMessage(Long groupId, String content) {
+        ChatMessage message = new ChatMessage();
+        message.setGroupId(groupId);
+        message.setUserName("student");
+        message.setContent(content);
+        return ((ChatMessage) chatController.sendMessage(message).getBody()).getId();
+    }
+}
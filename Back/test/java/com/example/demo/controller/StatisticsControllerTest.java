@@ -0,0 +1,212 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.GroupTaskStats;
+import com.example.demo.dto.TimelineBucket;
+import com.example.demo.model.Group;
+import com.example.demo.model.GroupMember;
+import com.example.demo.model.Task;
+import com.example.demo.model.TaskEvent;
+import com.example.demo.model.User;
+import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.GroupStatsRepository;
+import com.example.demo.repository.TaskEventRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.example.demo.controller.StatisticsControllerTest$StatementCounter")
+@ActiveProfiles("test")
+class StatisticsControllerTest {
+
+    @Autowired
+    private StatisticsController controller;
+
+    @Autowired
+    private GroupRepository groupRepo;
+
+    @Autowired
+    private GroupMemberRepository memberRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private TaskRepository taskRepo;
+
+    @Autowired
+    private TaskController taskController;
+
+    @Autowired
+    private GroupStatsRepository statsRepo;
+
+    @Autowired
+    private TaskEventRepository eventRepo;
+
+    @Test
+    void memberStatisticsUseOneStatementRegardlessOfMemberCount() {
+        Long smallGroup = createGroupWithMembers(2);
+        Long largeGroup = createGroupWithMembers(25);
+
+        assertEquals(1, statementsFor(smallGroup, 2));
+        assertEquals(1, statementsFor(largeGroup, 25));
+    }
+
+    @Test
+    void memberStatisticsCountCreatedAndCompletedTasks() {
+        Long groupId = createGroupWithMembers(3);
+
+        List<Map<String, Object>> stats = controller.getMemberStatistics(groupId);
+
+        assertEquals(3, stats.size());
+        // member i created i + 1 tasks, the first of which is DONE
+        for (int i = 0; i < stats.size(); i++) {
+            assertEquals((long) i + 1, stats.get(i).get("tasksCreated"));
+            assertEquals(1L, stats.get(i).get("tasksCompleted"));
+        }
+    }
+
+    @Test
+    void incrementalCountersMatchARebuildFromTasks() {
+        Long groupId = createGroupWithMembers(4);
+        Long userId = memberRepo.findByGroupId(groupId).get(3).getUserId();
+        Task moved = taskRepo.findByGroupIdAndCreatedBy(groupId, userId).get(1);
+        taskController.updateStatus(moved.getId(), Map.of("status", "IN_PROGRESS"));
+        taskController.deleteTask(taskRepo.findByGroupIdAndCreatedBy(groupId, userId).get(0).getId());
+
+        GroupTaskStats incremental = controller.getGroupStatistics(groupId);
+        List<Map<String, Object>> incrementalMembers = controller.getMemberStatistics(groupId);
+
+        statsRepo.rebuild();
+
+        GroupTaskStats rebuilt = controller.getGroupStatistics(groupId);
+        assertEquals(9, incremental.totalTasks);
+        assertEquals(3, incremental.tasksDone);
+        assertEquals(1, incremental.tasksInProgress);
+        assertEquals(3, incremental.tasksCompletedToday);
+        assertEquals(rebuilt.totalTasks, incremental.totalTasks);
+        assertEquals(rebuilt.tasksOpen, incremental.tasksOpen);
+        assertEquals(rebuilt.tasksInProgress, incremental.tasksInProgress);
+        assertEquals(rebuilt.tasksDone, incremental.tasksDone);
+        assertEquals(rebuilt.tasksCompletedToday, incremental.tasksCompletedToday);
+        assertEquals(rebuilt.tasksCompletedThisMonth, incremental.tasksCompletedThisMonth);
+        assertEquals(controller.getMemberStatistics(groupId), incrementalMembers);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timelineBucketsCreatedAndCompletedTasks() {
+        Long groupId = createGroupWithMembers(3);
+        Task task = taskRepo.findByGroupId(groupId).get(0);
+        assertNotNull(task.getCompletedAt());
+
+        // reopening clears the completion time; finishing it again counts as another completion
+        taskController.updateStatus(task.getId(), Map.of("status", "OPEN"));
+        assertNull(taskRepo.findById(task.getId()).orElseThrow().getCompletedAt());
+        taskController.updateStatus(task.getId(), Map.of("status", "DONE"));
+
+        TaskEvent old = new TaskEvent();
+        old.setTaskId(task.getId());
+        old.setGroupId(groupId);
+        old.setFromStatus("OPEN");
+        old.setToStatus("DONE");
+        old.setOccurredAt(LocalDate.now().minusDays(45).atTime(12, 0));
+        eventRepo.save(old);
+
+        List<TimelineBucket> days = (List<TimelineBucket>) controller.getTimeline(groupId, "day", null, null).getBody();
+        assertEquals(30, days.size());
+        TimelineBucket today = days.get(days.size() - 1);
+        assertEquals(LocalDate.now().toString(), today.start);
+        assertEquals(6, today.created);
+        assertEquals(4, today.completed);
+        assertEquals(4, days.stream().mapToLong(b -> b.completed).sum());
+
+        List<TimelineBucket> months = (List<TimelineBucket>) controller.getTimeline(groupId, "month",
+                LocalDate.now().minusDays(45), null).getBody();
+        assertEquals(5, months.stream().mapToLong(b -> b.completed).sum());
+        assertEquals(LocalDate.now().minusDays(45).withDayOfMonth(1).toString(), months.get(0).start);
+
+        assertEquals(400, controller.getTimeline(groupId, "hour", null, null).getStatusCode().value());
+        assertEquals(400, controller.getTimeline(groupId, "day", LocalDate.now().plusDays(1), null)
+                .getStatusCode().value());
+        // at most a year of days and two years of months
+        assertEquals(400, controller.getTimeline(groupId, "day", LocalDate.now().minusYears(1).minusDays(1), null)
+                .getStatusCode().value());
+        assertEquals(400, controller.getTimeline(groupId, "month", LocalDate.now().minusYears(2), null)
+                .getStatusCode().value());
+    }
+
+    private long statementsFor(Long groupId, int expectedMembers) {
+        StatementCounter.reset();
+
+        List<Map<String, Object>> stats = controller.getMemberStatistics(groupId);
+
+        assertEquals(expectedMembers, stats.size());
+        return StatementCounter.count();
+    }
+
+    private Long createGroupWithMembers(int members) {
+        Group group = new Group();
+        group.setName("stats");
+        Long groupId = groupRepo.save(group).getId();
+
+        for (int i = 0; i < members; i++) {
+            User user = new User();
+            user.setName("member " + i);
+            user.setEmail("member" + i + "." + groupId + "@example.com");
+            user.setPassword("secret1");
+            Long userId = userRepo.save(user).getId().longValue();
+
+            GroupMember member = new GroupMember();
+            member.setGroupId(groupId);
+            member.setUserId(userId);
+            memberRepo.save(member);
+
+            // through the controller, which keeps the statistics counters up to date
+            for (int t = 0; t <= i; t++) {
+                Task task = new Task();
+                task.setGroupId(groupId);
+                task.setCreatedBy(userId);
+                task.setTitle("task " + t);
+                Task saved = (Task) taskController.create(task, null).getBody();
+                if (t == 0) {
+                    taskController.updateStatus(saved.getId(), Map.of("status", "DONE"));
+                }
+            }
+        }
+        return groupId;
+    }
+
+    // Counts the SQL statements Hibernate prepares on the calling thread, so the background outbox relay doesn't interfere
+    public static class StatementCounter implements StatementInspector {
+
+        private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.set(COUNT.get() + 1);
+            return sql;
+        }
+
+        static void reset() {
+            COUNT.set(0);
+        }
+
+        static int count() {
+            return COUNT.get();
+        }
+    }
+}
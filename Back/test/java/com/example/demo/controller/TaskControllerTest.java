@@ -0,0 +1,250 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.TaskBoard;
+import com.example.demo.dto.TaskSummary;
+import com.example.demo.model.Group;
+import com.example.demo.model.GroupMember;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskController controller;
+
+    @Autowired
+    private GroupRepository groupRepo;
+
+    @Autowired
+    private GroupMemberRepository memberRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void deadlineAcceptsADateOrADateTime() throws Exception {
+        Task dateOnly = objectMapper.readValue("{\"title\":\"a\",\"deadline\":\"2025-12-10\"}", Task.class);
+        Task dateTime = objectMapper.readValue("{\"title\":\"b\",\"deadline\":\"2025-12-10T14:30\"}", Task.class);
+        Task blank = objectMapper.readValue("{\"title\":\"c\",\"deadline\":\"\"}", Task.class);
+
+        assertEquals(LocalDateTime.of(2025, 12, 10, 23, 59), dateOnly.getDeadline());
+        assertEquals(LocalDateTime.of(2025, 12, 10, 14, 30), dateTime.getDeadline());
+        assertNull(blank.getDeadline());
+    }
+
+    @Test
+    void upcomingDeadlinesAreUnfinishedTasksOfAllGroupsInTheNext24Hours() {
+        User user = new User();
+        user.setName("deadlines");
+        user.setEmail("deadlines@example.com");
+        user.setPassword("secret1");
+        Long userId = userRepo.save(user).getId().longValue();
+        Long groupId = createGroupWith(userId);
+        Long otherGroupId = createGroupWith(userId);
+        Long foreignGroupId = createGroupWith(userId + 1_000);
+        LocalDateTime now = LocalDateTime.now();
+
+        Long dueSoon = createTask(groupId, now.plusHours(3));
+        Long dueFirst = createTask(otherGroupId, now.plusHours(1));
+        Long finished = createTask(groupId, now.plusHours(2));
+        controller.updateStatus(finished, Map.of("status", "DONE"));
+        createTask(groupId, now.minusHours(1));
+        createTask(groupId, now.plusDays(3));
+        createTask(groupId, null);
+        createTask(foreignGroupId, now.plusHours(2));
+
+        List<Task> upcoming = controller.getUpcomingDeadlines(userId);
+
+        assertEquals(List.of(dueFirst, dueSoon), upcoming.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void summariesArePagedByKeysetInTheRequestedOrder() {
+        Long groupId = createGroupWith(1L);
+        LocalDateTime day = LocalDate.of(2030, 3, 1).atTime(12, 0);
+
+        Long noDeadline = createTask(groupId, null);
+        Long dueLater = createTask(groupId, day.plusDays(2));
+        Long dueFirst = createTask(groupId, day);
+        Long dueSameTime = createTask(groupId, day);
+        Long alsoNoDeadline = createTask(groupId, null);
+        Long done = createTask(groupId, day.plusDays(1));
+        controller.updateStatus(done, Map.of("status", "DONE"));
+        createTask(createGroupWith(1L), day);
+
+        // pages of two walk through deadlines, then the tasks without one
+        assertEquals(List.of(dueFirst, dueSameTime, done, dueLater, noDeadline, alsoNoDeadline),
+                allPages(groupId, null, null, null, "deadline"));
+        assertEquals(List.of(done, alsoNoDeadline, dueSameTime, dueFirst, dueLater, noDeadline),
+                allPages(groupId, null, null, null, "newest"));
+
+        assertEquals(List.of(alsoNoDeadline, dueSameTime, dueFirst, dueLater, noDeadline),
+                allPages(groupId, "OPEN", null, null, "newest"));
+        assertEquals(List.of(dueFirst, dueSameTime, done),
+                allPages(groupId, null, day.toLocalDate(), day.toLocalDate().plusDays(1), "deadline"));
+
+        assertEquals(400, controller.getTaskSummaries(groupId, null, null, null, null, "title", null, null, webRequest())
+                .getStatusCode().value());
+        assertEquals(400, controller.getTaskSummaries(groupId, null, null, null, null, "newest", "x", null, webRequest())
+                .getStatusCode().value());
+        assertEquals(400, controller.getTaskSummaries(groupId, null, null, null, null, "deadline", "12", null,
+                webRequest()).getStatusCode().value());
+    }
+
+    @Test
+    void summaryCursorsSurviveChangesToTheirTask() {
+        Long groupId = createGroupWith(1L);
+        LocalDateTime day = LocalDate.of(2030, 3, 1).atTime(12, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(createTask(groupId, day.plusDays(i)));
+        }
+
+        List<TaskSummary> first = summaries(groupId, "deadline", null);
+        assertEquals(ids.subList(0, 2), first.stream().map(t -> t.id).toList());
+        TaskSummary last = first.get(1);
+
+        // the cursor task moves to the end and then is deleted: the next page is the same either way
+        Task moved = new Task();
+        moved.setDeadline(day.plusDays(10));
+        controller.updateDeadline(last.id, moved);
+        assertEquals(ids.subList(2, 4), summaries(groupId, "deadline", last.deadline + "," + last.id)
+                .stream().map(t -> t.id).toList());
+        controller.deleteTask(last.id);
+        assertEquals(ids.subList(2, 4), summaries(groupId, "deadline", last.deadline + "," + last.id)
+                .stream().map(t -> t.id).toList());
+        assertEquals(List.of(ids.get(0)), summaries(groupId, "newest", String.valueOf(last.id))
+                .stream().map(t -> t.id).toList());
+    }
+
+    @Test
+    void boardHasTheFirstPageAndTotalOfEveryStatus() {
+        Long groupId = createGroupWith(1L);
+        List<Long> open = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            open.add(createTask(groupId, null));
+        }
+        Long inProgress = createTask(groupId, null);
+        controller.updateStatus(inProgress, Map.of("status", "IN_PROGRESS"));
+        createTask(createGroupWith(1L), null);
+
+        TaskBoard board = (TaskBoard) controller.getBoard(groupId, "newest", 3, webRequest()).getBody();
+
+        assertEquals(List.of("OPEN", "IN_PROGRESS", "DONE"), board.columns.stream().map(c -> c.status).toList());
+        assertEquals(List.of(4L, 1L, 0L), board.columns.stream().map(c -> c.total).toList());
+        assertEquals(List.of(open.get(3), open.get(2), open.get(1)),
+                board.columns.get(0).tasks.stream().map(t -> t.id).toList());
+        assertEquals(List.of(inProgress), board.columns.get(1).tasks.stream().map(t -> t.id).toList());
+        assertEquals(List.of(), board.columns.get(2).tasks);
+    }
+
+    @Test
+    void groupReadsAreNotModifiedUntilTheGroupChanges() throws Exception {
+        Long groupId = createGroupWith(1L);
+        createTask(groupId, null);
+        String board = "/tasks/group/" + groupId + "/board";
+
+        String etag = mvc.perform(get(board))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get(board).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // another group's writes don't matter
+        createTask(createGroupWith(1L), null);
+        mvc.perform(get("/tasks/group/" + groupId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        createTask(groupId, null);
+        String changed = mvc.perform(get(board).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changed);
+    }
+
+    private static WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/tasks"), new MockHttpServletResponse());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TaskSummary> summaries(Long groupId, String sort, String after) {
+        return (List<TaskSummary>) controller.getTaskSummaries(groupId, null, null, null, null, sort, after, 2,
+                webRequest()).getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> allPages(Long groupId, String status, LocalDate from, LocalDate to, String sort) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        while (true) {
+            List<TaskSummary> page = (List<TaskSummary>) controller.getTaskSummaries(
+                    groupId, status, null, from, to, sort, after, 2, webRequest()).getBody();
+            page.forEach(t -> ids.add(t.id));
+            if (page.size() < 2) {
+                return ids;
+            }
+            TaskSummary last = page.get(page.size() - 1);
+            after = sort.equals("newest") ? String.valueOf(last.id)
+                    : (last.deadline != null ? last.deadline.toString() : "") + "," + last.id;
+        }
+    }
+
+    private Long createGroupWith(Long userId) {
+        Group group = new Group();
+        group.setName("deadlines");
+        Long groupId = groupRepo.save(group).getId();
+
+        GroupMember member = new GroupMember();
+        member.setGroupId(groupId);
+        member.setUserId(userId);
+        memberRepo.save(member);
+        return groupId;
+    }
+
+    private Long createTask(Long groupId, LocalDateTime deadline) {
+        Task task = new Task();
+        task.setGroupId(groupId);
+        task.setTitle("task");
+        task.setDeadline(deadline);
+        return ((Task) controller.create(task, null).getBody()).getId();
+    }
+}
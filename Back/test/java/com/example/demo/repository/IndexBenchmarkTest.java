@@ -0,0 +1,244 @@
+package com.example.demo.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the hot repository queries on a 1M-row SQLite database without indexes (V1), with the single-column
+ * indexes (V3) and with the composite indexes (V4), printing the plan and average time of each. Then checks
+ * the indexes of the paged task listing (V12), which replace (group_id, status).
+ *
+ * The tests migrate the same database forward, so they run in order.
+ *
+ * Excluded from the normal build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class IndexBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int GROUPS = 10_000;
+    private static final int USERS = 50_000;
+    private static final int RUNS = 200;
+
+    // The same statements Hibernate generates for the derived queries
+    private static final String COUNT_BY_GROUP_AND_STATUS =
+            "SELECT count(id) FROM tasks WHERE group_id = ? AND status = ?";
+    private static final String UNREAD_BY_USER =
+            "SELECT id, message, created_at FROM notifications WHERE user_id = ? AND is_read = 0 ORDER BY created_at DESC";
+    private static final String MEMBERSHIP_EXISTS =
+            "SELECT id FROM group_members WHERE group_id = ? AND user_id = ? LIMIT 1";
+    // A page of a board column, as TaskRepositoryImpl.findSummaries reads it newest first and by deadline
+    private static final String SUMMARIES_NEWEST =
+            "SELECT id, title, status, deadline FROM tasks WHERE group_id = ? AND status = ? AND id < ? " +
+                    "ORDER BY id DESC LIMIT 20";
+    private static final String SUMMARIES_BY_DEADLINE =
+            "SELECT id, title, status, deadline FROM tasks WHERE group_id = ? AND status = ? AND deadline IS NOT NULL " +
+                    "AND (deadline > ? OR (deadline = ? AND id > ?)) ORDER BY deadline, id LIMIT 20";
+
+    private Path dbFile;
+    private String url;
+
+    @BeforeAll
+    void createDatabase() throws Exception {
+        dbFile = Files.createTempFile("index-benchmark", ".db");
+        url = "jdbc:sqlite:" + dbFile;
+
+        migrate("1");
+        try (Connection c = DriverManager.getConnection(url)) {
+            c.setAutoCommit(false);
+            fill(c, "INSERT INTO tasks (group_id, created_by, title, status, created_at, deadline) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)",
+                    (ps, i) -> {
+                        ps.setLong(1, i % GROUPS);
+                        ps.setLong(2, i % USERS);
+                        ps.setString(3, "task " + i);
+                        ps.setString(4, i % 3 == 0 ? "DONE" : i % 3 == 1 ? "OPEN" : "IN_PROGRESS");
+                        ps.setString(5, LocalDateTime.now().minusMinutes(i).toString());
+                        ps.setString(6, i % 2 == 0 ? LocalDate.now().plusDays(i % 365).toString() : null);
+                    });
+            fill(c, "INSERT INTO notifications (user_id, message, created_at, is_read) VALUES (?, ?, ?, ?)",
+                    (ps, i) -> {
+                        ps.setLong(1, i % USERS);
+                        ps.setString(2, "notification " + i);
+                        ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now().minusMinutes(i)));
+                        ps.setBoolean(4, i % 4 != 0);
+                    });
+            fill(c, "INSERT INTO group_members (group_id, user_id) VALUES (?, ?)",
+                    (ps, i) -> {
+                        ps.setLong(1, i % GROUPS);
+                        ps.setLong(2, i / GROUPS);
+                    });
+            c.commit();
+        }
+    }
+
+    @AfterAll
+    void deleteDatabase() throws Exception {
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Test
+    @Order(1)
+    void compositeIndexesTurnScansIntoSeeks() throws Exception {
+        List<String> unindexed = plansAndTimings("V1");
+        migrate("3");
+        plansAndTimings("V3");
+        migrate("4");
+        List<String> after = plansAndTimings("V4");
+
+        assertTrue(unindexed.stream().allMatch(plan -> plan.startsWith("SCAN")),
+                "expected table scans without indexes: " + unindexed);
+        assertTrue(after.stream().noneMatch(plan -> plan.startsWith("SCAN")),
+                "expected index seeks after the migration: " + after);
+        assertEquals("idx_tasks_group_status", indexOf(after.get(0)));
+        assertEquals("idx_notifications_user_read_created", indexOf(after.get(1)));
+        assertEquals("uk_group_members_group_user", indexOf(after.get(2)));
+    }
+
+    @Test
+    @Order(2)
+    void taskListingIndexesServeBoardPagesWithoutSorting() throws Exception {
+        migrate("12");
+        long deadline = LocalDate.now().plusDays(100).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        List<String> plans = new ArrayList<>();
+        try (Connection c = DriverManager.getConnection(url)) {
+            plans.add(measure(c, "V12", COUNT_BY_GROUP_AND_STATUS, (ps, i) -> {
+                ps.setLong(1, i % GROUPS);
+                ps.setString(2, "DONE");
+            }));
+            plans.add(measure(c, "V12", SUMMARIES_NEWEST, (ps, i) -> {
+                ps.setLong(1, i % GROUPS);
+                ps.setString(2, "OPEN");
+                ps.setLong(3, ROWS - i);
+            }));
+            plans.add(measure(c, "V12", SUMMARIES_BY_DEADLINE, (ps, i) -> {
+                ps.setLong(1, i % GROUPS);
+                ps.setString(2, "OPEN");
+                ps.setLong(3, deadline);
+                ps.setLong(4, deadline);
+                ps.setLong(5, i);
+            }));
+        }
+
+        // both new indexes start with (group_id, status) and cover the count; SQLite takes the wider one
+        assertEquals("idx_tasks_group_status_deadline", indexOf(plans.get(0)));
+        assertEquals("idx_tasks_group_status_id", indexOf(plans.get(1)));
+        assertEquals("idx_tasks_group_status_deadline", indexOf(plans.get(2)));
+        assertTrue(plans.stream().noneMatch(plan -> plan.contains("TEMP B-TREE")),
+                "expected pages read in index order: " + plans);
+        assertFalse(plans.stream().anyMatch(plan -> "idx_tasks_group_status".equals(indexOf(plan))), plans.toString());
+    }
+
+    private List<String> plansAndTimings(String label) throws SQLException {
+        List<String> plans = new ArrayList<>();
+        try (Connection c = DriverManager.getConnection(url)) {
+            plans.add(measure(c, label, COUNT_BY_GROUP_AND_STATUS, (ps, i) -> {
+                ps.setLong(1, i % GROUPS);
+                ps.setString(2, "DONE");
+            }));
+            plans.add(measure(c, label, UNREAD_BY_USER, (ps, i) -> ps.setLong(1, i % USERS)));
+            plans.add(measure(c, label, MEMBERSHIP_EXISTS, (ps, i) -> {
+                ps.setLong(1, i % GROUPS);
+                ps.setLong(2, i % 100);
+            }));
+        }
+        return plans;
+    }
+
+    // Runs the query RUNS times with varying parameters and returns its query plan, one line per step
+    // joined with " | " (the first step is the table access)
+    private String measure(Connection c, String label, String sql, Binder binder) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement explain = c.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            binder.bind(explain, 1);
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(rs.getString("detail"));
+                }
+            }
+        }
+        String plan = String.join(" | ", steps);
+
+        long started = System.nanoTime();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < RUNS; i++) {
+                binder.bind(ps, i);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        // drain
+                    }
+                }
+            }
+        }
+        double avgMillis = (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+        System.out.printf("[%s] %.3f ms/query  %s%n    plan: %s%n", label, avgMillis, sql, plan);
+        return plan;
+    }
+
+    // The index the first step of a plan reads, e.g. "idx_x" of "SEARCH t USING COVERING INDEX idx_x (a=?)"
+    private static String indexOf(String plan) {
+        String step = plan.split(" \\| ")[0];
+        int at = step.indexOf("INDEX ");
+        if (at < 0) {
+            return null;
+        }
+        String rest = step.substring(at + "INDEX ".length());
+        int end = rest.indexOf(' ');
+        return end < 0 ? rest : rest.substring(0, end);
+    }
+
+    private void migrate(String target) {
+        Flyway.configure()
+                .dataSource(url, null, null)
+                .locations("classpath:db/migration/sqlite")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static void fill(Connection c, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < ROWS; i++) {
+                binder.bind(ps, i);
+                ps.addBatch();
+                if (i % 10_000 == 9_999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps, int i) throws SQLException;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.TaskController;
+import com.example.demo.model.Group;
+import com.example.demo.model.GroupMember;
+import com.example.demo.model.Notification;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DeadlineReminderServiceTest {
+
+    @Autowired
+    private TaskController taskController;
+
+    @Autowired
+    private DeadlineReminderService reminders;
+
+    @Autowired
+    private GroupRepository groupRepo;
+
+    @Autowired
+    private GroupMemberRepository memberRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private NotificationRepository notificationRepo;
+
+    @Test
+    void sendsTheLatestDueReminderOnceAndTheRestOnTime() throws Exception {
+        Long userId = createUser("reminders");
+        Long groupId = createGroupWith(userId);
+        LocalDateTime now = LocalDateTime.now();
+
+        Task dueSoon = createTask(groupId, "due soon", now.plusMinutes(30));
+        createTask(groupId, "overdue", now.minusHours(2));
+        createTask(groupId, "next week", now.plusDays(7));
+        Task finished = createTask(groupId, "finished", null);
+        taskController.updateStatus(finished.getId(), Map.of("status", "DONE"));
+        finished.setDeadline(now.minusMinutes(5));
+        taskController.updateDeadline(finished.getId(), finished);
+
+        List<String> expected = List.of("Deadline in 1 hour: due soon", "Deadline passed: overdue");
+        assertEquals(expected, awaitMessages(userId, 2));
+
+        // rewriting the task or reloading the queue doesn't repeat a sent reminder
+        taskController.updateTask(dueSoon.getId(), dueSoon);
+        reminders.load();
+        Thread.sleep(500);
+        assertEquals(expected, messages(userId));
+    }
+
+    @Test
+    void aNewDeadlineGetsItsOwnReminders() throws Exception {
+        Long userId = createUser("rescheduled");
+        Long groupId = createGroupWith(userId);
+
+        Task task = createTask(groupId, "moved", LocalDateTime.now().plusHours(5));
+        assertEquals(List.of("Deadline in 24 hours: moved"), awaitMessages(userId, 1));
+
+        Task moved = new Task();
+        moved.setDeadline(LocalDateTime.now().minusMinutes(1));
+        taskController.updateDeadline(task.getId(), moved);
+
+        assertEquals(List.of("Deadline in 24 hours: moved", "Deadline passed: moved"), awaitMessages(userId, 2));
+    }
+
+    private List<String> awaitMessages(Long userId, int count) throws InterruptedException {
+        for (int i = 0; i < 100 && messages(userId).size() < count; i++) {
+            Thread.sleep(50);
+        }
+        return messages(userId);
+    }
+
+    private List<String> messages(Long userId) {
+        return notificationRepo.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(Notification::getMessage)
+                .filter(message -> message.startsWith("Deadline"))
+                .sorted()
+                .toList();
+    }
+
+    private Long createUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret1");
+        return userRepo.save(user).getId().longValue();
+    }
+
+    private Long createGroupWith(Long userId) {
+        Group group = new Group();
+        group.setName("reminders");
+        Long groupId = groupRepo.save(group).getId();
+
+        GroupMember member = new GroupMember();
+        member.setGroupId(groupId);
+        member.setUserId(userId);
+        memberRepo.save(member);
+        return groupId;
+    }
+
+    private Task createTask(Long groupId, String title, LocalDateTime deadline) {
+        Task task = new Task();
+        task.setGroupId(groupId);
+        task.setTitle(title);
+        task.setDeadline(deadline);
+        return (Task) taskController.create(task, null).getBody();
+    }
+}
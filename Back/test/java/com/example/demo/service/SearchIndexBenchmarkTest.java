@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SearchResults;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searches an on-disk index of 1M chat messages spread over 1000 groups and prints the latency of common,
+ * rare and multi-word queries.
+ *
+ * Excluded from the normal build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchIndexBenchmarkTest {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int GROUPS = 1_000;
+    private static final int RUNS = 500;
+
+    private static final String[] WORDS = ("exam lecture notes homework deadline project lab report matrix vector " +
+            "integral derivative theorem proof chapter exercise quiz seminar group meeting library slides " +
+            "question answer tomorrow monday friday room teacher grade draft review").split(" ");
+
+    private Path dir;
+    private SearchIndex index;
+
+    @BeforeAll
+    void createIndex() throws Exception {
+        dir = Files.createTempDirectory("search-benchmark");
+        index = new SearchIndex(null, dir.toString());
+
+        Random random = new Random(42);
+        long started = System.nanoTime();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 12; w++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (i % 10_000 == 0) {
+                content.append("eigenvalues");
+            }
+            index.put("chat", (long) i, (long) (i % GROUPS), "user" + (i % 5000), content.toString());
+        }
+        System.out.printf("indexed %d documents in %.1f s%n", DOCUMENTS, (System.nanoTime() - started) / 1e9);
+    }
+
+    @AfterAll
+    void deleteIndex() throws Exception {
+        index.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Test
+    void queriesAnswerWellUnder50Milliseconds() throws Exception {
+        for (String query : new String[]{"homework", "eigenvalues", "lecture notes", "exam -draft", "theo*"}) {
+            long[] nanos = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long started = System.nanoTime();
+                SearchResults results = index.search((long) (i % GROUPS), query, i % 3, 20);
+                nanos[i] = System.nanoTime() - started;
+                assertTrue(results.total >= 0);
+            }
+            Arrays.sort(nanos);
+            double p50 = nanos[RUNS / 2] / 1e6;
+            double p99 = nanos[RUNS * 99 / 100] / 1e6;
+            System.out.printf("%-14s p50 %.3f ms  p99 %.3f ms%n", query, p50, p99);
+            assertTrue(p99 < 50, query + ": p99 " + p99 + " ms");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.websocket;
+
+import com.example.demo.model.Group;
+import com.example.demo.model.GroupMember;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.GroupMemberRepository;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.OutboxEventRepository;
+import com.example.demo.service.ResourceRevisions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    private static final int EVENTS = 300;
+
+    @Autowired
+    private OutboxEventRepository outboxRepo;
+
+    @Autowired
+    private GroupRepository groupRepo;
+
+    @Autowired
+    private GroupMemberRepository memberRepo;
+
+    @Autowired
+    private NotificationRepository notificationRepo;
+
+    @Autowired
+    private ResourceRevisions revisions;
+
+    @Autowired
+    private NotificationWS ws;
+
+    @Autowired
+    private SimpMessagingTemplate messaging;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("notificationExecutor")
+    private TaskExecutor notificationExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Two relays stand in for two instances sharing the database: each event must still be claimed by one
+    @Test
+    void relaysSharingTheDatabaseDeliverEachEventOncePerMember() throws Exception {
+        Group group = new Group();
+        group.setName("outbox");
+        Long groupId = groupRepo.save(group).getId();
+        List<Long> members = List.of(910_001L, 910_002L, 910_003L);
+        for (Long userId : members) {
+            GroupMember member = new GroupMember();
+            member.setGroupId(groupId);
+            member.setUserId(userId);
+            memberRepo.save(member);
+        }
+
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            OutboxEvent event = new OutboxEvent();
+            event.setType("task_created");
+            event.setGroupId(groupId);
+            event.setContent("outbox event " + i);
+            event.setCreatedAt(LocalDateTime.now());
+            events.add(event);
+        }
+        outboxRepo.saveAll(events);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            OutboxRelay relay = new OutboxRelay(outboxRepo, memberRepo, notificationRepo, revisions, ws, messaging,
+                    transactionManager, notificationExecutor, 10);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    relay.drain();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (Long userId : members) {
+            List<Map<String, Object>> counts = jdbcTemplate.queryForList(
+                    "SELECT message, COUNT(*) AS copies FROM notifications WHERE user_id = ? GROUP BY message", userId);
+            assertEquals(EVENTS, counts.size());
+            assertEquals(List.of(1L), counts.stream().map(c -> ((Number) c.get("copies")).longValue()).distinct()
+                    .toList());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.client;
 
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.json.JSONObject;
 
 import java.net.URI;
 import java.util.HashMap;
@@ -18,16 +19,36 @@ public class WSClient extends WebSocketClient {
     private final Runnable defaultCallback;
     private final Map<String, Runnable> typeCallbacks = new HashMap<>();
     private final Map<String, Consumer<String>> typeCallbacksWithContent = new HashMap<>();
+    private final Map<String, Consumer<JSONObject>> typeCallbacksWithPayload = new HashMap<>();
+
+    private Runnable connectedCallback;
+    private long reconnectDelayMillis = -1;
+    private volatile boolean closedByClient = false;
 
     private static final java.util.List<String> recentNotifications = new java.util.ArrayList<>();
 
     
-    public WSClient(Runnable onUpdate) throws Exception {
-        super(new URI("ws://localhost:8080/ws/notify"));
+    public WSClient(Long userId, Long groupId, Runnable onUpdate) throws Exception {
+        super(buildUri(userId, groupId));
         this.defaultCallback = onUpdate;
     }
 
     
+    // The server only routes events of the subscribed group/user channels to this connection.
+    private static URI buildUri(Long userId, Long groupId) throws Exception {
+        StringBuilder query = new StringBuilder();
+        if (userId != null) {
+            query.append("userId=").append(userId);
+        }
+        if (groupId != null) {
+            if (query.length() > 0) query.append('&');
+            query.append("groupId=").append(groupId);
+        }
+        String base = "ws://localhost:8080/ws/notify";
+        return new URI(query.length() > 0 ? base + "?" + query : base);
+    }
+
+    
     public void onType(String type, Runnable callback) {
         typeCallbacks.put(type, callback);
     }
@@ -38,6 +59,21 @@ public class WSClient extends WebSocketClient {
     }
 
     
+    public void onTypeWithPayload(String type, Consumer<JSONObject> callback) {
+        typeCallbacksWithPayload.put(type, callback);
+    }
+
+    
+    public void onConnected(Runnable callback) {
+        this.connectedCallback = callback;
+    }
+
+    
+    public void enableAutoReconnect(long delayMillis) {
+        this.reconnectDelayMillis = delayMillis;
+    }
+
+    
     public static java.util.List<String> getRecentNotifications() {
         return new java.util.ArrayList<>(recentNotifications);
     }
@@ -51,6 +87,10 @@ public class WSClient extends WebSocketClient {
     public void onOpen(ServerHandshake handshakedata) {
         LOGGER.log(Level.INFO, "WS: connection opened");
         System.out.println("WS: connection opened");
+
+        if (connectedCallback != null) {
+            connectedCallback.run();
+        }
     }
 
     @Override
@@ -73,7 +113,15 @@ public class WSClient extends WebSocketClient {
         }
 
         if (type != null) {
-            if (typeCallbacksWithContent.containsKey(type)) {
+            if (typeCallbacksWithPayload.containsKey(type)) {
+                LOGGER.log(Level.INFO, "WS: running callback with payload for type: {0}", type);
+                try {
+                    typeCallbacksWithPayload.get(type).accept(new JSONObject(message));
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "WS: could not parse payload for type: " + type, e);
+                }
+            }
+            else if (typeCallbacksWithContent.containsKey(type)) {
                 LOGGER.log(Level.INFO, "WS: running callback with content for type: {0}", type);
                 typeCallbacksWithContent.get(type).accept(content != null ? content : "");
             }
@@ -121,6 +169,29 @@ public class WSClient extends WebSocketClient {
         LOGGER.log(Level.INFO, "WS: connection closed (code={0}, reason={1}, remote={2})",
                 new Object[]{code, reason, remote});
         System.out.println("WS: connection closed (code=" + code + ", reason=" + reason + ", remote=" + remote + ")");
+
+        if (reconnectDelayMillis >= 0 && !closedByClient) {
+            // reconnect() must not be called from the WebSocket thread itself
+            Thread reconnector = new Thread(() -> {
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                    if (!closedByClient) {
+                        LOGGER.log(Level.INFO, "WS: reconnecting");
+                        reconnect();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "ws-reconnect");
+            reconnector.setDaemon(true);
+            reconnector.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        closedByClient = true;
+        super.close();
     }
 
     @Override
@@ -11,17 +11,22 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import org.json.JSONArray;
+import org.json.JSONObject;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,7 +38,16 @@ public class ChatController {
     @FXML private TextField inputField;
     @FXML private ScrollPane scrollPane;
 
+    private static final int PAGE_SIZE = 50;
+    private static final int CATCH_UP_PAGE_SIZE = 200;
+    private static final long RECONNECT_DELAY_MS = 3000;
+
     private WSClient ws;
+    private Long firstMessageId;
+    private Long lastMessageId;
+    private final Set<Long> shownMessageIds = new HashSet<>();
+    private Label emptyLabel;
+    private Button olderButton;
 
     @FXML
     public void initialize() {
@@ -42,8 +56,18 @@ public class ChatController {
         loadMessages();
 
         try {
-            ws = new WSClient(() -> Platform.runLater(this::loadMessages));
-            ws.onType("chat_new", () -> Platform.runLater(this::loadMessages));
+            ws = new WSClient(null, TaskHolder.groupId, null);
+            ws.onTypeWithPayload("chat_new", event -> {
+                JSONObject message = event.optJSONObject("message");
+                if (message != null) {
+                    Platform.runLater(() -> appendMessage(message));
+                } else {
+                    Platform.runLater(this::catchUp);
+                }
+            });
+            // Anything pushed while we were disconnected is fetched with a single "since last id" call
+            ws.onConnected(() -> Platform.runLater(this::catchUp));
+            ws.enableAutoReconnect(RECONNECT_DELAY_MS);
             ws.connect();
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, "Could not connect WebSocket for chat", e);
@@ -61,77 +85,33 @@ public class ChatController {
         try {
             HttpClient client = HttpClient.newHttpClient();
             HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/chat/" + TaskHolder.groupId))
+                    .uri(URI.create("http://localhost:8080/chat/" + TaskHolder.groupId + "?limit=" + PAGE_SIZE))
                     .build();
 
             HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-            String body = resp.body();
-
             LOGGER.log(Level.INFO, "Chat response status: {0}", resp.statusCode());
-            LOGGER.log(Level.INFO, "Chat response body: {0}", body);
 
             messagesBox.getChildren().clear();
-
-            if (body.startsWith("[") && body.length() > 2) {
-                String[] parts = body.split("\\{");
-                for (String part : parts) {
-                    if (part.contains("\"content\":\"") || part.contains("\"message\":\"")) {
-                        try {
-                            String sender = "Unknown";
-                            if (part.contains("\"senderName\":\"")) {
-                                sender = part.split("\"senderName\":\"")[1].split("\"")[0];
-                            } else if (part.contains("\"sender\":\"")) {
-                                sender = part.split("\"sender\":\"")[1].split("\"")[0];
-                            } else if (part.contains("\"userName\":\"")) {
-                                sender = part.split("\"userName\":\"")[1].split("\"")[0];
-                            }
-
-                            String content = "";
-                            if (part.contains("\"content\":\"")) {
-                                content = part.split("\"content\":\"")[1].split("\"")[0];
-                            } else if (part.contains("\"message\":\"")) {
-                                content = part.split("\"message\":\"")[1].split("\"")[0];
-                            } else if (part.contains("\"text\":\"")) {
-                                content = part.split("\"text\":\"")[1].split("\"")[0];
-                            }
-
-                            String time = "";
-                            if (part.contains("\"createdAt\":\"")) {
-                                String timestamp = part.split("\"createdAt\":\"")[1].split("\"")[0];
-                                if (timestamp.contains("T")) {
-                                    time = timestamp.split("T")[1];
-                                    if (time.contains(".")) {
-                                        time = time.split("\\.")[0];
-                                    }
-                                }
-                            } else if (part.contains("\"timestamp\":\"")) {
-                                String timestamp = part.split("\"timestamp\":\"")[1].split("\"")[0];
-                                if (timestamp.contains("T")) {
-                                    time = timestamp.split("T")[1];
-                                    if (time.contains(".")) {
-                                        time = time.split("\\.")[0];
-                                    }
-                                }
-                            }
-
-                            addMessageToUI(sender, content, time);
-
-                        } catch (Exception e) {
-                            LOGGER.log(Level.WARNING, "Error parsing message part", e);
-                        }
-                    }
-                }
+            emptyLabel = null;
+            olderButton = null;
+            firstMessageId = null;
+            lastMessageId = null;
+            shownMessageIds.clear();
+
+            JSONArray messages = new JSONArray(resp.body());
+            for (int i = 0; i < messages.length(); i++) {
+                appendMessage(messages.getJSONObject(i));
             }
+            // a full page means there may be older messages than the ones on screen
+            showOlderButton(messages.length() == PAGE_SIZE);
 
             if (messagesBox.getChildren().isEmpty()) {
-                Label noMessages = new Label("No messages yet. Start the conversation!");
-                noMessages.setStyle("-fx-text-fill: #9E9E9E;");
-                messagesBox.getChildren().add(noMessages);
+                emptyLabel = new Label("No messages yet. Start the conversation!");
+                emptyLabel.setStyle("-fx-text-fill: #9E9E9E;");
+                messagesBox.getChildren().add(emptyLabel);
             }
 
-            Platform.runLater(() -> scrollPane.setVvalue(1.0));
-
-            LOGGER.log(Level.INFO, "Loaded {0} messages", messagesBox.getChildren().size());
+            LOGGER.log(Level.INFO, "Loaded {0} messages", messages.length());
 
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error loading messages", e);
@@ -141,7 +121,143 @@ public class ChatController {
         }
     }
 
-    private void addMessageToUI(String sender, String content, String time) {
+    // Fetches the page of messages just before the oldest one on screen and puts it above them.
+    private void loadOlder() {
+        if (TaskHolder.groupId == null || firstMessageId == null) {
+            return;
+        }
+
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest req = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/chat/" + TaskHolder.groupId
+                            + "?before=" + firstMessageId + "&limit=" + PAGE_SIZE))
+                    .build();
+
+            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            if (resp.statusCode() != 200) {
+                LOGGER.log(Level.WARNING, "Loading older messages failed with status {0}", resp.statusCode());
+                return;
+            }
+
+            JSONArray messages = new JSONArray(resp.body());
+            // newest first, each one inserted right below the button
+            for (int i = messages.length() - 1; i >= 0; i--) {
+                prependMessage(messages.getJSONObject(i));
+            }
+            showOlderButton(messages.length() == PAGE_SIZE);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error loading older messages", e);
+        }
+    }
+
+    private void showOlderButton(boolean hasOlder) {
+        if (olderButton != null) {
+            messagesBox.getChildren().remove(olderButton);
+            olderButton = null;
+        }
+        if (hasOlder) {
+            olderButton = new Button("Load older messages");
+            olderButton.setOnAction(e -> loadOlder());
+            messagesBox.getChildren().add(0, olderButton);
+        }
+    }
+
+    // Fetches only the messages newer than the last one on screen.
+    private void catchUp() {
+        if (TaskHolder.groupId == null) {
+            return;
+        }
+        if (lastMessageId == null) {
+            loadMessages();
+            return;
+        }
+
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            int received;
+            do {
+                HttpRequest req = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/chat/" + TaskHolder.groupId
+                                + "?after=" + lastMessageId + "&limit=" + CATCH_UP_PAGE_SIZE))
+                        .build();
+
+                HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+                if (resp.statusCode() != 200) {
+                    LOGGER.log(Level.WARNING, "Chat catch-up failed with status {0}, reloading", resp.statusCode());
+                    loadMessages();
+                    return;
+                }
+
+                JSONArray messages = new JSONArray(resp.body());
+                received = messages.length();
+                for (int i = 0; i < received; i++) {
+                    appendMessage(messages.getJSONObject(i));
+                }
+            } while (received == CATCH_UP_PAGE_SIZE);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error catching up on chat messages", e);
+        }
+    }
+
+    private void appendMessage(JSONObject message) {
+        if (!TaskHolder.groupId.equals(message.optLong("groupId"))) {
+            return;
+        }
+
+        long id = message.optLong("id");
+        if (!shownMessageIds.add(id)) {
+            // already on screen (e.g. our own message, delivered both by the POST response and the socket)
+            return;
+        }
+
+        if (emptyLabel != null) {
+            messagesBox.getChildren().remove(emptyLabel);
+            emptyLabel = null;
+        }
+
+        messagesBox.getChildren().add(messageRow(message));
+
+        if (firstMessageId == null || id < firstMessageId) {
+            firstMessageId = id;
+        }
+        if (lastMessageId == null || id > lastMessageId) {
+            lastMessageId = id;
+        }
+        Platform.runLater(() -> scrollPane.setVvalue(1.0));
+    }
+
+    private void prependMessage(JSONObject message) {
+        long id = message.optLong("id");
+        if (!shownMessageIds.add(id)) {
+            return;
+        }
+
+        messagesBox.getChildren().add(olderButton != null ? 1 : 0, messageRow(message));
+
+        if (firstMessageId == null || id < firstMessageId) {
+            firstMessageId = id;
+        }
+    }
+
+    private HBox messageRow(JSONObject message) {
+        String sender = message.optString("userName", "Unknown");
+        String content = message.optString("content", "");
+        return messageRow(sender, content, formatTime(message.optString("timestamp", "")));
+    }
+
+    private static String formatTime(String timestamp) {
+        if (!timestamp.contains("T")) {
+            return "";
+        }
+        String time = timestamp.split("T")[1];
+        if (time.contains(".")) {
+            time = time.split("\\.")[0];
+        }
+        return time;
+    }
+
+    private HBox messageRow(String sender, String content, String time) {
         HBox messageRow = new HBox(5);
 
         boolean isMyMessage = sender.equals(UserHolder.userName);
@@ -167,7 +283,7 @@ public class ChatController {
             messageRow.setStyle("-fx-background-color: #3C3C3C; -fx-padding: 5; -fx-background-radius: 5;");
         }
 
-        messagesBox.getChildren().add(messageRow);
+        return messageRow;
     }
 
     @FXML
@@ -229,7 +345,11 @@ public class ChatController {
                 if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
                     success = true;
                     inputField.clear();
-                    loadMessages();
+                    try {
+                        appendMessage(new JSONObject(resp.body()));
+                    } catch (Exception e) {
+                        catchUp();
+                    }
                     break;
                 } else if (resp.statusCode() != 404) {
                     LOGGER.log(Level.WARNING, "Endpoint {0} returned error: {1}", new Object[]{endpoint, resp.body()});
@@ -3,6 +3,7 @@ package com.example.client.controllers;
 import com.example.client.Main;
 import com.example.client.holders.TaskHolder;
 import com.example.client.holders.UserHolder;
+import com.example.client.utils.HttpCache;
 import com.example.client.utils.SceneUtils;
 import com.example.client.utils.ValidationUtils;
 import javafx.fxml.FXML;
@@ -34,12 +35,7 @@ public class GroupsController {
 
     private Long getGroupIdByName(String groupName) {
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/groups"))
-                    .build();
-
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/groups");
             String body = resp.body();
 
             String[] blocks = body.split("\\{");
@@ -302,12 +298,7 @@ public class GroupsController {
 
     private void loadGroups() {
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/groups"))
-                    .build();
-
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/groups");
             String body = resp.body();
 
             groupsList.getItems().clear();
@@ -3,6 +3,8 @@ package com.example.client.controllers;
 import com.example.client.Main;
 import com.example.client.WSClient;
 import com.example.client.holders.TaskHolder;
+import com.example.client.utils.ChunkedUploader;
+import com.example.client.utils.HttpCache;
 import com.example.client.utils.SceneUtils;
 import com.example.client.utils.ValidationUtils;
 import javafx.application.Platform;
@@ -10,6 +12,8 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
@@ -19,9 +23,14 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -31,6 +40,9 @@ public class MaterialsController {
 
     private static final Logger LOGGER = Logger.getLogger(MaterialsController.class.getName());
 
+    // Files larger than this use the resumable chunked upload
+    private static final long CHUNKED_UPLOAD_THRESHOLD = 16L * 1024 * 1024;
+
     @FXML private ListView<String> materialsList;
 
     private List<MaterialItem> materials = new ArrayList<>();
@@ -69,7 +81,7 @@ public class MaterialsController {
         loadMaterials();
 
         try {
-            ws = new WSClient(() -> Platform.runLater(this::loadMaterials));
+            ws = new WSClient(null, TaskHolder.groupId, () -> Platform.runLater(this::loadMaterials));
             ws.onType("material_new", () -> Platform.runLater(this::loadMaterials));
             ws.connect();
         } catch (Exception e) {
@@ -84,12 +96,7 @@ public class MaterialsController {
         }
 
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/materials/group/" + TaskHolder.groupId))
-                    .build();
-
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/materials/group/" + TaskHolder.groupId);
             String body = resp.body();
 
             LOGGER.log(Level.INFO, "Materials response status: {0}", resp.statusCode());
@@ -195,6 +202,7 @@ public class MaterialsController {
         } else {
             ButtonType downloadButton = new ButtonType("Download File");
             alert.setContentText("What would you like to do with this file?");
+            showPreview(alert, material);
             alert.getButtonTypes().setAll(downloadButton, deleteButton, cancelButton);
 
             Optional<ButtonType> result = alert.showAndWait();
@@ -208,6 +216,28 @@ public class MaterialsController {
         }
     }
 
+    // Thumbnail and first lines of the file (a few KB, made by the server after the upload) instead of downloading it
+    private void showPreview(Alert alert, MaterialItem material) {
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:8080/materials/" + material.id;
+
+            HttpResponse<byte[]> thumbnail = client.send(HttpRequest.newBuilder().uri(URI.create(base + "/thumbnail")).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (thumbnail.statusCode() == 200) {
+                alert.setGraphic(new ImageView(new Image(new ByteArrayInputStream(thumbnail.body()))));
+            }
+
+            HttpResponse<String> preview = client.send(HttpRequest.newBuilder().uri(URI.create(base + "/preview")).build(),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (preview.statusCode() == 200) {
+                alert.setContentText(preview.body());
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not load preview", e);
+        }
+    }
+
     private void openLink(String url) {
         try {
             if (url != null && !url.isEmpty()) {
@@ -384,38 +414,32 @@ public class MaterialsController {
                 : file.getName();
 
         try {
-            String boundary = "----FormBoundary" + System.currentTimeMillis();
             HttpClient client = HttpClient.newHttpClient();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-            baos.write(("--" + boundary + "\r\n").getBytes());
-            baos.write("Content-Disposition: form-data; name=\"groupId\"\r\n\r\n".getBytes());
-            baos.write((TaskHolder.groupId.toString() + "\r\n").getBytes());
-
-            baos.write(("--" + boundary + "\r\n").getBytes());
-            baos.write("Content-Disposition: form-data; name=\"title\"\r\n\r\n".getBytes());
-            baos.write((title + "\r\n").getBytes());
 
-            baos.write(("--" + boundary + "\r\n").getBytes());
-            baos.write(("Content-Disposition: form-data; name=\"file\"; filename=\"" + file.getName() + "\"\r\n").getBytes());
-            String contentType = Files.probeContentType(file.toPath());
-            if (contentType == null) contentType = "application/octet-stream";
-            baos.write(("Content-Type: " + contentType + "\r\n\r\n").getBytes());
-            baos.write(Files.readAllBytes(file.toPath()));
-            baos.write("\r\n".getBytes());
-
-            baos.write(("--" + boundary + "--\r\n").getBytes());
-
-            byte[] requestBody = baos.toByteArray();
-            LOGGER.log(Level.INFO, "Uploading file: {0}, size: {1} bytes", new Object[]{file.getName(), requestBody.length});
-
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/materials/upload"))
-                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
-                    .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody))
+            // Files already stored on the server (the same document in another group) aren't sent again
+            String sha256 = sha256Of(file.toPath());
+            String json = "{ \"sha256\": \"" + sha256 + "\", \"title\": \"" + ValidationUtils.sanitize(title)
+                    + "\", \"groupId\": \"" + TaskHolder.groupId + "\" }";
+            HttpRequest existing = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/materials/by-hash"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
                     .build();
+            HttpResponse<String> existingResp = client.send(existing, HttpResponse.BodyHandlers.ofString());
+            LOGGER.log(Level.INFO, "Add by hash response: {0} - {1}", new Object[]{existingResp.statusCode(), existingResp.body()});
+            if (existingResp.statusCode() >= 200 && existingResp.statusCode() < 300) {
+                showAlert("Success", "File uploaded successfully!");
+                loadMaterials();
+                return;
+            }
 
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> resp;
+            if (file.length() > CHUNKED_UPLOAD_THRESHOLD) {
+                // Large files go in chunks, several at a time; an interrupted upload continues where it stopped
+                resp = ChunkedUploader.upload(client, file.toPath(), sha256, TaskHolder.groupId, title);
+            } else {
+                resp = uploadMultipart(client, file, title);
+            }
             LOGGER.log(Level.INFO, "Upload response: {0} - {1}", new Object[]{resp.statusCode(), resp.body()});
 
             if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
@@ -430,6 +454,48 @@ public class MaterialsController {
         }
     }
 
+    private static HttpResponse<String> uploadMultipart(HttpClient client, File file, String title)
+            throws IOException, InterruptedException {
+        String boundary = "----FormBoundary" + System.currentTimeMillis();
+
+        String contentType = Files.probeContentType(file.toPath());
+        if (contentType == null) contentType = "application/octet-stream";
+
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"groupId\"\r\n\r\n"
+                + TaskHolder.groupId + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + title + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + file.getName() + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+
+        // The file part is read from disk while the request is sent instead of being loaded into memory
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                HttpRequest.BodyPublishers.ofFile(file.toPath()),
+                HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8));
+        LOGGER.log(Level.INFO, "Uploading file: {0}, size: {1} bytes", new Object[]{file.getName(), body.contentLength()});
+
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/materials/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(body)
+                .build();
+
+        return client.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String sha256Of(Path path) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
     @FXML
     public void back() {
         try {
@@ -3,6 +3,7 @@ package com.example.client.controllers;
 import com.example.client.Main;
 import com.example.client.WSClient;
 import com.example.client.holders.UserHolder;
+import com.example.client.utils.HttpCache;
 import com.example.client.utils.SceneUtils;
 import com.example.client.utils.ValidationUtils;
 import javafx.application.Platform;
@@ -63,7 +64,7 @@ public class MembersController {
         loadMembers();
 
         try {
-            ws = new WSClient(() -> Platform.runLater(this::loadMembers));
+            ws = new WSClient(null, currentGroupId, () -> Platform.runLater(this::loadMembers));
             ws.onType("member_new", () -> Platform.runLater(this::loadMembers));
             ws.connect();
         } catch (Exception e) {
@@ -79,12 +80,7 @@ public class MembersController {
         }
 
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/groups/" + currentGroupId + "/members"))
-                    .build();
-
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/groups/" + currentGroupId + "/members");
             String body = resp.body();
 
             LOGGER.log(Level.INFO, "Members response status: {0}", resp.statusCode());
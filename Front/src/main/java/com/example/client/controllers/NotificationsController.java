@@ -3,6 +3,7 @@ package com.example.client.controllers;
 import com.example.client.WSClient;
 import com.example.client.holders.UserHolder;
 import com.example.client.holders.TaskHolder;
+import com.example.client.utils.HttpCache;
 import com.example.client.utils.SceneUtils;
 import com.example.client.utils.ValidationUtils;
 import javafx.application.Platform;
@@ -12,10 +13,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.ListView;
 import javafx.stage.Stage;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,10 +28,13 @@ public class NotificationsController {
     public void initialize() {
         loadNotifications();
         try {
-            ws = new WSClient(() -> Platform.runLater(this::loadNotifications));
+            ws = new WSClient(UserHolder.userId, null, () -> Platform.runLater(this::loadNotifications));
             ws.onType("task_new", () -> Platform.runLater(this::loadNotifications));
             ws.onType("member_new", () -> Platform.runLater(this::loadNotifications));
             ws.onType("material_new", () -> Platform.runLater(this::loadNotifications));
+            // deadline reminders are sent by the server as notifications
+            ws.onType("deadline_soon", () -> Platform.runLater(this::loadNotifications));
+            ws.onType("deadline_overdue", () -> Platform.runLater(this::loadNotifications));
             ws.connect();
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, "Could not connect WebSocket for notifications", e);
@@ -45,14 +45,9 @@ public class NotificationsController {
         if (UserHolder.userId == null) return;
         notifList.getItems().clear();
 
-        HttpClient client = HttpClient.newHttpClient();
-
         // Load persisted notifications
         try {
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/notifications/" + UserHolder.userId))
-                    .build();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/notifications/" + UserHolder.userId);
             String body = resp.body();
             if (body != null && body.trim().startsWith("[") && !body.trim().equals("[]")) {
                 String[] parts = body.split("\\{");
@@ -76,37 +71,8 @@ public class NotificationsController {
             LOGGER.log(Level.WARNING, "Error loading notifications", e);
         }
 
-        // Load upcoming task deadlines
-        try {
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/tasks/upcoming/" + UserHolder.userId))
-                    .build();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-            String body = resp.body();
-            if (body != null && body.trim().startsWith("[") && !body.trim().equals("[]")) {
-                String[] parts = body.split("\\{");
-                for (String part : parts) {
-                    if (part.contains("\"title\":")) {
-                        String title = extractJsonValue(part, "title");
-                        String deadline = extractJsonValue(part, "deadline");
-                        if (deadline != null) {
-                            deadline = deadline.replace("T", " ");
-                            if (deadline.length() > 16) {
-                                deadline = deadline.substring(0, 16);
-                            }
-                        } else {
-                            deadline = "soon";
-                        }
-                        notifList.getItems().add("⏰ DEADLINE: " + title + " — " + deadline);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Error loading upcoming deadlines", e);
-        }
-
         if (notifList.getItems().isEmpty()) {
-            notifList.getItems().add("No notifications or upcoming deadlines");
+            notifList.getItems().add("No notifications");
         }
     }
 
@@ -2,6 +2,7 @@ package com.example.client.controllers;
 
 import com.example.client.Main;
 import com.example.client.holders.TaskHolder;
+import com.example.client.utils.HttpCache;
 import com.example.client.utils.SceneUtils;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -125,12 +126,7 @@ public class StatisticsController {
 
     private void calculateStatsFromTasks() {
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/tasks/group/" + TaskHolder.groupId))
-                    .build();
-
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/tasks/group/" + TaskHolder.groupId);
             String body = resp.body();
 
             totalTasks = 0;
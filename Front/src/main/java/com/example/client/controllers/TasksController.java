@@ -3,11 +3,13 @@ package com.example.client.controllers;
 import com.example.client.Main;
 import com.example.client.WSClient;
 import com.example.client.holders.TaskHolder;
+import com.example.client.utils.HttpCache;
 import com.example.client.utils.SceneUtils;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
@@ -28,51 +30,112 @@ public class TasksController {
     @FXML private VBox inProgressColumn;
     @FXML private VBox doneColumn;
 
+    private static final int PAGE_SIZE = 50;
+
     private static final Logger LOGGER = Logger.getLogger(TasksController.class.getName());
 
     private WSClient ws;
 
+    // The board comes in one request with the first page and task count of each status column; further
+    // pages of a column are loaded when asked for
     private void loadTasks() {
         try {
-            HttpClient client = HttpClient.newHttpClient();
             Long groupId = TaskHolder.groupId;
+            HttpCache.Response resp = HttpCache.get(
+                    "http://localhost:8080/tasks/group/" + groupId + "/board?limit=" + PAGE_SIZE);
+            if (resp.statusCode() != 200) {
+                LOGGER.log(Level.WARNING, "Could not load the task board: {0}", resp.body());
+                return;
+            }
 
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/tasks/group/" + groupId))
-                    .build();
+            clearColumns();
 
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-            String json = resp.body();
+            JSONArray columns = new JSONObject(resp.body()).getJSONArray("columns");
+            for (int i = 0; i < columns.length(); i++) {
+                JSONObject column = columns.getJSONObject(i);
+                String status = column.getString("status");
+                long total = column.getLong("total");
+                JSONArray tasks = column.getJSONArray("tasks");
 
-            clearColumns();
+                ((Label) columnFor(status).getChildren().get(0)).setText(status.replace('_', ' ') + " (" + total + ")");
+                addPage(status, tasks, tasks.length() < total);
+            }
 
-            JSONArray tasks = new JSONArray(json);
-            for (int i = 0; i < tasks.length(); i++) {
-                try {
-                    JSONObject task = tasks.getJSONObject(i);
-
-                    if (!task.has("id") || !task.has("title") || !task.has("status")) {
-                        LOGGER.log(Level.WARNING, "Task JSON missing required fields: {0}", task);
-                        continue;
-                    }
-
-                    Long id = task.getLong("id");
-                    String title = task.getString("title");
-                    String status = task.getString("status");
-                    String deadline = task.optString("deadline", null);
-                    if ("null".equals(deadline)) deadline = null;
-
-                    addTaskToColumn(id, title, status, deadline);
-                } catch (Exception e) {
-                    LOGGER.log(Level.WARNING, "Error parsing task: " + tasks.get(i), e);
-                }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error loading tasks", e);
+        }
+    }
+
+    // Appends the page of the column's tasks after the cursor (the board is newest first, so the id of the
+    // last task shown); returns false if it could not be loaded
+    private boolean loadColumn(String status, String after) {
+        try {
+            Long groupId = TaskHolder.groupId;
+            HttpCache.Response resp = HttpCache.get("http://localhost:8080/tasks/group/" + groupId
+                    + "/summaries?status=" + status + "&limit=" + PAGE_SIZE + "&after=" + after);
+            if (resp.statusCode() != 200) {
+                LOGGER.log(Level.WARNING, "Could not load {0} tasks: {1}", new Object[]{status, resp.body()});
+                return false;
             }
 
+            JSONArray tasks = new JSONArray(resp.body());
+            addPage(status, tasks, tasks.length() == PAGE_SIZE);
+            return true;
+
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error loading tasks", e);
+            return false;
         }
     }
 
+    // Adds the tasks to their column, followed by a button that loads the next page if there is one
+    private void addPage(String status, JSONArray tasks, boolean hasMore) {
+        VBox column = columnFor(status);
+        Long lastId = null;
+        for (int i = 0; i < tasks.length(); i++) {
+            try {
+                JSONObject task = tasks.getJSONObject(i);
+
+                if (!task.has("id") || !task.has("title") || !task.has("status")) {
+                    LOGGER.log(Level.WARNING, "Task JSON missing required fields: {0}", task);
+                    continue;
+                }
+
+                Long id = task.getLong("id");
+                String title = task.getString("title");
+                String deadline = task.optString("deadline", null);
+                if ("null".equals(deadline)) deadline = null;
+
+                addTaskToColumn(id, title, task.getString("status"), deadline);
+                lastId = id;
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error parsing task: " + tasks.get(i), e);
+            }
+        }
+
+        if (hasMore && lastId != null) {
+            String next = String.valueOf(lastId);
+            Button more = new Button("Load more");
+            more.setOnAction(e -> {
+                int at = column.getChildren().indexOf(more);
+                column.getChildren().remove(more);
+                if (!loadColumn(status, next)) {
+                    // put it back so the page can be asked for again
+                    column.getChildren().add(at, more);
+                }
+            });
+            column.getChildren().add(more);
+        }
+    }
+
+    private VBox columnFor(String status) {
+        return switch (status) {
+            case "IN_PROGRESS" -> inProgressColumn;
+            case "DONE" -> doneColumn;
+            default -> openColumn;
+        };
+    }
+
     private void clearColumns() {
         if (openColumn.getChildren().size() > 1) {
             openColumn.getChildren().remove(1, openColumn.getChildren().size());
@@ -212,7 +275,7 @@ public class TasksController {
         loadTasks();
 
         try {
-            ws = new WSClient(() -> Platform.runLater(this::loadTasks));
+            ws = new WSClient(null, TaskHolder.groupId, () -> Platform.runLater(this::loadTasks));
             ws.onType("task_new", () -> Platform.runLater(this::loadTasks));
             ws.connect();
         } catch (Exception e) {
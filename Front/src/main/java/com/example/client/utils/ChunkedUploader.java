@@ -0,0 +1,199 @@
+package com.example.client.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+/**
+ * Uploads a large file through the resumable upload API (/materials/uploads): the file is sent in chunks,
+ * several at a time, each read from disk at its offset and checked by the server against its SHA-256.
+ * A failed chunk is retried on its own. The upload id is remembered per group and file content, so after a
+ * crash or a lost connection the next upload of the same file to the same group, under the same title, only
+ * sends the chunks the server doesn't have yet.
+ */
+public final class ChunkedUploader {
+
+    private static final Logger LOGGER = Logger.getLogger(ChunkedUploader.class.getName());
+
+    private static final String UPLOADS_URL = "http://localhost:8080/materials/uploads";
+    private static final int PARALLEL_CHUNKS = 4;
+    private static final int ATTEMPTS = 3;
+
+    // Group id -> SHA-256 of a file -> id of its unfinished upload to that group
+    private static final Preferences PENDING = Preferences.userNodeForPackage(ChunkedUploader.class).node("uploads");
+
+    private ChunkedUploader() {
+    }
+
+    // Returns the server's answer to completing the upload (the new material on success)
+    public static HttpResponse<String> upload(HttpClient client, Path file, String sha256, Long groupId, String title)
+            throws IOException, InterruptedException {
+        long size = Files.size(file);
+        Preferences pending = PENDING.node(String.valueOf(groupId));
+
+        JSONObject status = resume(client, pending, sha256, size, groupId, title);
+        if (status == null) {
+            JSONObject init = new JSONObject()
+                    .put("title", title)
+                    .put("groupId", String.valueOf(groupId))
+                    .put("size", String.valueOf(size));
+            HttpResponse<String> resp = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(UPLOADS_URL))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(init.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (resp.statusCode() != 200) {
+                return resp;
+            }
+            status = new JSONObject(resp.body());
+            pending.put(sha256, status.getString("uploadId"));
+        }
+
+        String uploadId = status.getString("uploadId");
+        int chunkSize = status.getInt("chunkSize");
+        int chunkCount = status.getInt("chunkCount");
+        Set<Integer> received = new HashSet<>();
+        JSONArray receivedJson = status.getJSONArray("received");
+        for (int i = 0; i < receivedJson.length(); i++) {
+            received.add(receivedJson.getInt(i));
+        }
+        LOGGER.log(Level.INFO, "Uploading {0} in {1} chunks, {2} already received",
+                new Object[]{file.getFileName(), chunkCount, received.size()});
+
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLEL_CHUNKS);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int index = 0; index < chunkCount; index++) {
+                if (!received.contains(index)) {
+                    int chunk = index;
+                    sent.add(pool.submit(() -> {
+                        sendChunk(client, channel, uploadId, chunk, chunkSize, size);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> chunk : sent) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Chunk upload failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        HttpResponse<String> resp = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL + "/" + uploadId + "/complete"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new JSONObject().put("sha256", sha256).toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
+            pending.remove(sha256);
+        }
+        return resp;
+    }
+
+    // Status of an earlier, unfinished upload of this content to the same group and title, or null if there is
+    // none the server still has. An upload that would complete somewhere else is abandoned: the server creates
+    // the material from the group and title the upload was started with.
+    private static JSONObject resume(HttpClient client, Preferences pending, String sha256, long size, Long groupId,
+                                     String title) throws IOException, InterruptedException {
+        String uploadId = pending.get(sha256, null);
+        if (uploadId == null) {
+            return null;
+        }
+        HttpResponse<String> resp = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL + "/" + uploadId))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() == 200) {
+            JSONObject status = new JSONObject(resp.body());
+            if (status.optLong("size") == size
+                    && String.valueOf(groupId).equals(String.valueOf(status.opt("groupId")))
+                    && normalizeTitle(title).equals(status.optString("title"))) {
+                return status;
+            }
+
+            LOGGER.log(Level.INFO, "Discarding unfinished upload {0} of another group or title", uploadId);
+            client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(UPLOADS_URL + "/" + uploadId))
+                    .DELETE()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+        pending.remove(sha256);
+        return null;
+    }
+
+    // The title as the server stores it (without tags and repeated whitespace)
+    private static String normalizeTitle(String title) {
+        return title.replaceAll("<[^>]*>", "").replaceAll("\\s+", " ").trim();
+    }
+
+    private static void sendChunk(HttpClient client, FileChannel channel, String uploadId, int index, int chunkSize,
+                                  long size) throws IOException, InterruptedException {
+        long offset = (long) index * chunkSize;
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(chunkSize, size - offset));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) == -1) {
+                throw new IOException("File changed while uploading");
+            }
+        }
+        byte[] bytes = buffer.array();
+
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(UPLOADS_URL + "/" + uploadId + "/chunks/" + index + "?offset=" + offset))
+                .header("Content-Type", "application/octet-stream")
+                .header("X-Chunk-Sha256", sha256(bytes))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(bytes))
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+                if (resp.statusCode() == 200) {
+                    return;
+                }
+                if (attempt >= ATTEMPTS) {
+                    throw new IOException("Chunk " + index + " rejected: " + resp.statusCode() + " " + resp.body());
+                }
+            } catch (IOException e) {
+                if (attempt >= ATTEMPTS) {
+                    throw e;
+                }
+            }
+            LOGGER.log(Level.WARNING, "Retrying chunk {0} (attempt {1})", new Object[]{index, attempt + 1});
+            Thread.sleep(1000L * attempt);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
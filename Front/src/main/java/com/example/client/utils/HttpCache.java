@@ -0,0 +1,66 @@
+package com.example.client.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GETs that revalidate instead of refetching. The last body and ETag of each URL are remembered, and the
+ * next GET of that URL sends If-None-Match. The server answers 304 without a body while its data hasn't
+ * changed, and the remembered body is returned instead.
+ *
+ * Only the most recently used URLs are kept, so paged URLs can't grow the cache without bound.
+ */
+public final class HttpCache {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    // Status and body of a GET; a body served from the cache comes with status 200
+    public record Response(int statusCode, String body) {
+    }
+
+    private record Entry(String etag, String body) {
+    }
+
+    private static final Map<URI, Entry> ENTRIES = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private HttpCache() {
+    }
+
+    public static Response get(String url) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        Entry cached = ENTRIES.get(uri);
+
+        HttpRequest.Builder req = HttpRequest.newBuilder().uri(uri);
+        if (cached != null) {
+            req.header("If-None-Match", cached.etag());
+        }
+        HttpResponse<String> resp = CLIENT.send(req.build(), HttpResponse.BodyHandlers.ofString());
+
+        if (resp.statusCode() == 304 && cached != null) {
+            return new Response(200, cached.body());
+        }
+
+        Optional<String> etag = resp.headers().firstValue("ETag");
+        if (resp.statusCode() == 200 && etag.isPresent()) {
+            ENTRIES.put(uri, new Entry(etag.get(), resp.body()));
+        } else {
+            ENTRIES.remove(uri);
+        }
+        return new Response(resp.statusCode(), resp.body());
+    }
+}